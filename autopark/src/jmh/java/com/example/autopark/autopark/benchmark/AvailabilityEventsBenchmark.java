@@ -0,0 +1,78 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.service.AvailabilityEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк рассылки события AvailabilityEventBus ожидающим подписчикам: от публикации события
+ * до его отправки последнему подписчику (fanOut) и время самой публикации, которое ждет сервис бронирований
+ * (publish) и не должно зависеть от числа подписчиков. Отправка каждому подписчику идет в своем виртуальном потоке.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AvailabilityEventsBenchmark {
+
+    @Param({"1000", "5000"})
+    public int subscribers;
+
+    private AvailabilityEventBus bus;
+    private final List<SseEmitter> emitters = new ArrayList<>();
+    private volatile CountDownLatch delivered;
+    private long carId;
+
+    /**
+     * Поток SSE клиента, который отмечает доставку события, не записывая его.
+     */
+    private final class CountingEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            // Проверки соединения (комментарии без имени события) не считаются
+            if (builder.build().stream().anyMatch(part -> part.getData().toString().contains("event:"))) {
+                delivered.countDown();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bus = new AvailabilityEventBus(64, Duration.ofHours(1), new SimpleMeterRegistry());
+        bus.start();
+        delivered = new CountDownLatch(0);
+        for (int i = 0; i < subscribers; i++) {
+            SseEmitter emitter = new CountingEmitter();
+            bus.subscribe(emitter, null);
+            emitters.add(emitter);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emitters.forEach(SseEmitter::complete);
+        bus.stop();
+    }
+
+    @Benchmark
+    public boolean fanOut() throws InterruptedException {
+        delivered = new CountDownLatch(subscribers);
+        bus.carDeleted(++carId);
+        return delivered.await(30, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void publish() {
+        bus.carDeleted(++carId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.autopark.autopark.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк проверки пароля BCrypt при разных коэффициентах стоимости.
+ * Помогает выбрать значение autopark.password.bcrypt-strength и размер пула хеширования паролей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class BCryptBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("benchmark_password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("benchmark_password", hash);
+    }
+}
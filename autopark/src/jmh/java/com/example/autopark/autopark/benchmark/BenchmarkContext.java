@@ -0,0 +1,47 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.CarRentalSystemApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запуск приложения без HTTP-сервера на отдельной базе данных H2 в памяти — для бенчмарков сервисов,
+ * которые работают с базой данных и индексами в памяти.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Запускает приложение.
+     *
+     * @param database   Имя базы данных H2, своё для каждого бенчмарка
+     * @param properties Дополнительные свойства в виде name=value
+     * @return Контекст приложения, который бенчмарк закрывает в @TearDown
+     */
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.flyway.locations=classpath:db/migration",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--spring.devtools.restart.enabled=false",
+                // DevTools закрывает базу H2 раньше пула соединений, что дает предупреждение при остановке
+                "--spring.autoconfigure.exclude=org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        SpringApplication application = new SpringApplication(CarRentalSystemApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор тестовых данных для бенчмарков: машины, пользователи и бронирования в памяти, без базы данных.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Car> cars(int count) {
+        List<Car> cars = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            cars.add(new Car(id, "Brand" + (id % 20), "Model" + (id % 150), 2000 + (int) (id % 25),
+                    30.0 + id % 200, id % 3 != 0, 0));
+        }
+        return cars;
+    }
+
+    static List<Booking> bookings(int count) {
+        List<Car> cars = cars(Math.max(1, count / 10));
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= Math.max(1, count / 20); id++) {
+            users.add(new User(id, "user" + id, "$2a$10$7EqJtq98hPqEX7fNZaFWoOa9QhD4kYh6Hq8sBOfWl0cZmbq4R5iK6", Role.CUSTOMER));
+        }
+        LocalDate origin = LocalDate.of(2025, 1, 1);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate startDate = origin.plusDays(i % 365);
+            bookings.add(new Booking((long) i + 1, users.get(i % users.size()), cars.get(i % cars.size()),
+                    startDate, startDate.plusDays(1 + i % 7)));
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingConflictException;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бенчмарк BookingService.createBooking при одновременных запросах: показывает, как пропускная способность
+ * растет с числом различных машин, когда запросы к одной машине выполняются последовательно под её блокировкой.
+ * Каждые две попытки претендуют на один день, поэтому часть из них завершается конфликтом.
+ * Потоков 8 — меньше половины пула соединений: транзакция бронирования берет еще одно соединение для выделения ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class BookingContentionBenchmark {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2030, 1, 1);
+
+    @Param({"1", "16", "256"})
+    public int cars;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Long[] carIds;
+    private Long userId;
+    private final AtomicLong attempts = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("contention_" + cars);
+        bookingService = context.getBean(BookingService.class);
+        CarService carService = context.getBean(CarService.class);
+        carIds = new Long[cars];
+        for (int i = 0; i < cars; i++) {
+            carIds[i] = carService.addCar(new Car(null, "Brand", "Model" + i, 2020, 50.0, true, 0)).getId();
+        }
+        userId = context.getBean(UserRepository.class).save(new User(null, "benchmark_user", "hash", Role.CUSTOMER)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean createBooking() {
+        LocalDate startDate = ORIGIN.plusDays(attempts.getAndIncrement() / 2);
+        Long carId = carIds[ThreadLocalRandom.current().nextInt(cars)];
+        try {
+            bookingService.createBooking(new BookingDTO(null, userId, carId, startDate, startDate));
+            return true;
+        } catch (BookingConflictException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.Booking;
+import com.example.autopark.autopark.entity.BookingDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк преобразования больших списков бронирований в DTO (BookingDTO.from),
+ * которое выполняется при ответах контроллера бронирований.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingDtoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(size);
+    }
+
+    @Benchmark
+    public List<BookingDTO> convertWithStream() {
+        return bookings.stream().map(BookingDTO::from).toList();
+    }
+
+    @Benchmark
+    public List<BookingDTO> convertWithLoop() {
+        List<BookingDTO> result = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            result.add(BookingDTO.from(booking));
+        }
+        return result;
+    }
+}
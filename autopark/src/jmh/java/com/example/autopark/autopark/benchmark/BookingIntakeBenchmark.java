@@ -0,0 +1,97 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.BookingRequestStatus;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingIntakeService;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Бенчмарк создания бронирований к 200 машинам: синхронно через BookingService.createBooking
+ * и через асинхронный прием BookingIntakeService, где каждый поток ставит в очередь пачку запросов
+ * и дожидается их обработки. Запросы одной машины не пересекаются.
+ * Потоков 8 — меньше половины пула соединений: транзакция бронирования берет еще одно соединение для выделения ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class BookingIntakeBenchmark {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2030, 1, 1);
+    private static final int CARS = 200;
+    private static final int SUBMITTED_PER_INVOCATION = 100;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingIntakeService bookingIntakeService;
+    private Long[] carIds;
+    private Long userId;
+    private final AtomicLong requests = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("intake");
+        bookingService = context.getBean(BookingService.class);
+        bookingIntakeService = context.getBean(BookingIntakeService.class);
+        CarService carService = context.getBean(CarService.class);
+        carIds = new Long[CARS];
+        for (int i = 0; i < CARS; i++) {
+            carIds[i] = carService.addCar(new Car(null, "Brand", "Model" + i, 2020, 50.0, true, 0)).getId();
+        }
+        userId = context.getBean(UserRepository.class).save(new User(null, "benchmark_user", "hash", Role.CUSTOMER)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createSynchronously() {
+        bookingService.createBooking(nextRequest());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUBMITTED_PER_INVOCATION)
+    public int submitAndAwait() {
+        List<String> requestIds = new ArrayList<>(SUBMITTED_PER_INVOCATION);
+        for (int i = 0; i < SUBMITTED_PER_INVOCATION; i++) {
+            requestIds.add(bookingIntakeService.submit(nextRequest()).getRequestId());
+        }
+        int created = 0;
+        for (String requestId : requestIds) {
+            String status;
+            while ((status = bookingIntakeService.status(requestId).orElseThrow().getStatus())
+                    .equals(BookingRequestStatus.PENDING)) {
+                LockSupport.parkNanos(100_000);
+            }
+            if (status.equals(BookingRequestStatus.CREATED)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Запрос n бронирует машину n % CARS на двое суток с шагом в трое суток.
+     */
+    private BookingDTO nextRequest() {
+        long n = requests.getAndIncrement();
+        LocalDate start = ORIGIN.plusDays(3 * (n / CARS));
+        return new BookingDTO(null, userId, carIds[(int) (n % CARS)], start, start.plusDays(1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarSearchResult;
+import com.example.autopark.autopark.service.CarSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк поиска с фасетами CarSearchIndex по автопарку из 100 000 машин: без фильтров,
+ * с фильтрами по всем полям и с фильтром по нескольким маркам и модели.
+ * Отдельно измеряется поиск после изменения цены, когда массив цен перестраивается.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CarSearchIndexBenchmark {
+
+    private static final int FLEET = 100_000;
+
+    private static final CarSearchIndex.Query ALL =
+            new CarSearchIndex.Query(null, null, null, null, null, null, null, 20);
+    private static final CarSearchIndex.Query FILTERED =
+            new CarSearchIndex.Query(List.of("Brand7"), null, 2010, 2020, 50.0, 150.0, true, 20);
+    private static final CarSearchIndex.Query BRANDS_AND_MODEL =
+            new CarSearchIndex.Query(List.of("Brand1", "Brand2"), List.of("Model1"), null, null, null, null, null, 20);
+
+    private CarSearchIndex index;
+    private Car repriced;
+
+    @Setup
+    public void setUp() {
+        index = new CarSearchIndex(null, 50);
+        for (long id = 1; id <= FLEET; id++) {
+            index.putCar(car(id));
+        }
+        repriced = car(FLEET / 2);
+    }
+
+    @Benchmark
+    public CarSearchResult searchAll() {
+        return index.search(ALL);
+    }
+
+    @Benchmark
+    public CarSearchResult searchFiltered() {
+        return index.search(FILTERED);
+    }
+
+    @Benchmark
+    public CarSearchResult searchBrandsAndModel() {
+        return index.search(BRANDS_AND_MODEL);
+    }
+
+    @Benchmark
+    public CarSearchResult searchAfterPriceChange() {
+        repriced.setPricePerDay(repriced.getPricePerDay() == 20 ? 300 : 20);
+        index.putCar(repriced);
+        return index.search(FILTERED);
+    }
+
+    private static Car car(long id) {
+        int i = (int) id;
+        return new Car(id, "Brand" + i % 40, "Model" + i % 800, 2000 + i % 25, 20 + i % 280, i % 10 != 0, 0);
+    }
+}
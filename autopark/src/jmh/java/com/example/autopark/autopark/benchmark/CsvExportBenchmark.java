@@ -0,0 +1,78 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.service.CsvExportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк выгрузки истории бронирований в CSV: 300 000 бронирований 1 000 машин.
+ * Ответ пишется в поток, который только считает байты, поэтому измеряются чтение курсора и форматирование строк.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvExportBenchmark {
+
+    private static final int CARS = 1_000;
+    private static final int BOOKINGS = 300_000;
+    private static final LocalDate ORIGIN = LocalDate.of(2020, 1, 1);
+
+    private ConfigurableApplicationContext context;
+    private CsvExportService csvExportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("csv_export");
+        csvExportService = context.getBean(CsvExportService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into users (id, username, password, role) values (1, 'finance', 'x', 'CUSTOMER')");
+        List<Object[]> cars = new ArrayList<>(CARS);
+        for (int i = 1; i <= CARS; i++) {
+            cars.add(new Object[]{i, "Brand" + (i % 20), "Model" + (i % 200), 2000 + i % 25, 30.5 + i % 70, true, 0});
+        }
+        jdbcTemplate.batchUpdate("insert into cars (id, brand, model, year, price_per_day, available, version) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", cars);
+        List<Object[]> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDate start = ORIGIN.plusDays(3L * ((i - 1) / CARS));
+            bookings.add(new Object[]{i, 1, 1 + (i - 1) % CARS, Date.valueOf(start), Date.valueOf(start.plusDays(2))});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, user_id, car_id, start_date, end_date) "
+                + "values (?, ?, ?, ?, ?)", bookings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportFullHistory() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        csvExportService.writeBookings(ORIGIN, ORIGIN.plusYears(10), out);
+        return out.bytes;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
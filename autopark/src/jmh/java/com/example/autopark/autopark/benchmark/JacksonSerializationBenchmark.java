@@ -0,0 +1,102 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.Booking;
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк сериализации Jackson списков машин и бронирований.
+ * ObjectMapper настраивается так же, как в приложении (Jackson2ObjectMapperBuilder).
+ * Бронирования сериализуются и как DTO, и как полный граф с пользователем и машиной.
+ * Разбор JSON и CBOR показывает стоимость чтения списков на стороне клиента.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JacksonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private List<Car> cars;
+    private List<Booking> bookings;
+    private List<BookingDTO> bookingDTOs;
+    private byte[] carsJson;
+    private byte[] carsCbor;
+    private byte[] bookingDTOsJson;
+    private byte[] bookingDTOsCbor;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        cars = BenchmarkData.cars(size);
+        bookings = BenchmarkData.bookings(size);
+        bookingDTOs = bookings.stream().map(BookingDTO::from).toList();
+        try {
+            carsJson = jsonMapper.writeValueAsBytes(cars);
+            carsCbor = cborMapper.writeValueAsBytes(cars);
+            bookingDTOsJson = jsonMapper.writeValueAsBytes(bookingDTOs);
+            bookingDTOsCbor = cborMapper.writeValueAsBytes(bookingDTOs);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] carsToJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(cars);
+    }
+
+    @Benchmark
+    public byte[] carsToCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(cars);
+    }
+
+    @Benchmark
+    public byte[] bookingDTOsToJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(bookingDTOs);
+    }
+
+    @Benchmark
+    public byte[] bookingDTOsToCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(bookingDTOs);
+    }
+
+    @Benchmark
+    public byte[] bookingGraphToJson() throws JsonProcessingException {
+        return jsonMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public List<Car> carsFromJson() throws IOException {
+        return jsonMapper.readValue(carsJson, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<Car> carsFromCbor() throws IOException {
+        return cborMapper.readValue(carsCbor, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<BookingDTO> bookingDTOsFromJson() throws IOException {
+        return jsonMapper.readValue(bookingDTOsJson, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<BookingDTO> bookingDTOsFromCbor() throws IOException {
+        return cborMapper.readValue(bookingDTOsCbor, new TypeReference<>() {});
+    }
+}
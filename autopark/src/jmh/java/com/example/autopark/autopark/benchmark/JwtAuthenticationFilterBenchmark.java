@@ -0,0 +1,66 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.security.JwtAuthenticationFilter;
+import com.example.autopark.autopark.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк фильтра JWT-аутентификации: время обработки запроса без токена (как при прежней открытой цепочке),
+ * с действительным и с некорректным токеном. Разница между ними — накладные расходы аутентификации на запрос.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP = (request, response) -> {
+    };
+
+    private JwtAuthenticationFilter filter;
+    private String validHeader;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(10_000, Duration.ofMinutes(15));
+        filter = new JwtAuthenticationFilter(jwtService, new SimpleMeterRegistry());
+        validHeader = "Bearer " + jwtService.generateToken(1L, "benchmark_user", "CUSTOMER");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse withoutToken() throws Exception {
+        return filter(null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse validToken() throws Exception {
+        return filter(validHeader);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse invalidToken() throws Exception {
+        return filter("Bearer invalid");
+    }
+
+    private MockHttpServletResponse filter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cars/available");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
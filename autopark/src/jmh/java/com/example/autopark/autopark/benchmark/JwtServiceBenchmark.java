@@ -0,0 +1,69 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк операций JwtService: выдача токена, проверка и извлечение данных.
+ * Извлечение измеряется как с попаданием в кэш проверенных токенов, так и с полной проверкой подписи.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    // Число различных токенов для проверки без кэша; намного больше размера кэша, поэтому почти все проверки — промахи
+    private static final int DISTINCT_TOKENS = 1 << 16;
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cachedService = new JwtService(10_000, Duration.ofMinutes(15));
+        uncachedService = new JwtService(1024, Duration.ofMinutes(15));
+        token = cachedService.generateToken(1L, "benchmark_user", "CUSTOMER");
+        cachedService.extractAllClaims(token);
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = cachedService.generateToken((long) i, "benchmark_user_" + i, "CUSTOMER");
+        }
+    }
+
+    private String nextToken() {
+        next = (next + 1) & (DISTINCT_TOKENS - 1);
+        return tokens[next];
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedService.generateToken(1L, "benchmark_user", "CUSTOMER");
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cachedService.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedService.validateToken(nextToken());
+    }
+
+    @Benchmark
+    public Claims extractAllClaimsCached() {
+        return cachedService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Claims extractAllClaimsUncached() {
+        return uncachedService.extractAllClaims(nextToken());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.autopark.autopark.benchmark;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.QuoteDTO;
+import com.example.autopark.autopark.service.CarOccupancyIndex;
+import com.example.autopark.autopark.service.QuoteService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк расчета стоимости аренды QuoteService для автопарка разного размера.
+ * Каждая десятая машина занята в середине периода, поэтому в расчет попадают 90% автопарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuoteServiceBenchmark {
+
+    // Понедельник
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 7);
+    private static final LocalDate TO = FROM.plusDays(9);
+
+    @Param({"1000", "50000"})
+    public int fleet;
+
+    private QuoteService service;
+
+    @Setup
+    public void setUp() {
+        CarOccupancyIndex index = new CarOccupancyIndex(null);
+        for (long id = 1; id <= fleet; id++) {
+            index.putCar(new Car(id, "Brand", "Model", 2020, 20.0 + id % 500, true, 0));
+            if (id % 10 == 0) {
+                index.occupy(id, FROM.plusDays(3), FROM.plusDays(5));
+            }
+        }
+        service = new QuoteService();
+        ReflectionTestUtils.setField(service, "occupancyIndex", index);
+        ReflectionTestUtils.setField(service, "weekendDiscount", 0.1);
+        ReflectionTestUtils.setField(service, "longRentalDays", 7);
+        ReflectionTestUtils.setField(service, "longRentalDiscount", 0.15);
+        ReflectionTestUtils.setField(service, "maxDays", 366);
+    }
+
+    @Benchmark
+    public List<QuoteDTO> quoteSortedByPrice() {
+        return service.quote(FROM, TO, true);
+    }
+
+    @Benchmark
+    public List<QuoteDTO> quoteInIndexOrder() {
+        return service.quote(FROM, TO, false);
+    }
+}
@@ -1,22 +1,31 @@
 package com.example.autopark.autopark;
 
+import com.example.autopark.autopark.service.CarImportRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс приложения для запуска системы аренды автомобилей.
  * Использует Spring Boot для автоматической настройки и запуска приложения.
+ * Планировщик задач используется для периодической очистки истекших refresh-токенов.
  */
 @SpringBootApplication
+@EnableScheduling
 public class CarRentalSystemApplication {
 
 	/**
 	 * Точка входа в приложение.
-	 * Запускает Spring Boot приложение.
+	 * Запускает Spring Boot приложение. При импорте машин из файла (autopark.import.file)
+	 * завершает процесс после импорта с кодом, который вернул CarImportRunner.
 	 *
 	 * @param args Аргументы командной строки
 	 */
 	public static void main(String[] args) {
-		SpringApplication.run(CarRentalSystemApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(CarRentalSystemApplication.class, args);
+		if (context.getBeanProvider(CarImportRunner.class).getIfAvailable() != null) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 }
\ No newline at end of file
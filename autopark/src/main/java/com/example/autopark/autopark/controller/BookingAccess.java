@@ -0,0 +1,67 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Проверки владельца бронирований: клиент работает только со своими бронированиями,
+ * администратор — с бронированиями любого пользователя.
+ * ID клиента берется из JWT-токена (AuthenticatedUser), а не из запроса.
+ */
+final class BookingAccess {
+
+    private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+    private BookingAccess() {
+    }
+
+    /**
+     * Проверяет, является ли пользователь администратором.
+     *
+     * @param authentication Текущая аутентификация
+     * @return true, если у пользователя роль ADMIN
+     */
+    static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    /**
+     * Возвращает ID пользователя из токена.
+     *
+     * @param authentication Текущая аутентификация
+     * @return ID пользователя или null, если пользователь аутентифицирован не по JWT-токену с ID
+     */
+    static Long userId(Authentication authentication) {
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.id()
+                : null;
+    }
+
+    /**
+     * Проверяет, может ли пользователь работать с бронированиями указанного пользователя.
+     *
+     * @param authentication Текущая аутентификация
+     * @param ownerId        ID владельца бронирований
+     * @return true для администратора и для самого владельца
+     */
+    static boolean canAccess(Authentication authentication, Long ownerId) {
+        if (isAdmin(authentication)) {
+            return true;
+        }
+        Long userId = userId(authentication);
+        return userId != null && userId.equals(ownerId);
+    }
+
+    /**
+     * Назначает владельцем новых бронирований пользователя из токена. Администратор может создавать
+     * бронирования от имени любого пользователя, поэтому для него ID из запроса сохраняется.
+     *
+     * @param authentication Текущая аутентификация
+     * @param requestedId    ID пользователя из тела запроса
+     * @return ID владельца бронирования или null, если он не может быть определен
+     */
+    static Long ownerId(Authentication authentication, Long requestedId) {
+        return isAdmin(authentication) ? requestedId : userId(authentication);
+    }
+}
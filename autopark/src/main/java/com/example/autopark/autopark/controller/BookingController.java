@@ -1,17 +1,33 @@
 package com.example.autopark.autopark.controller;
 
-import com.example.autopark.autopark.entity.Booking;
 import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.BookingRequestStatus;
+import com.example.autopark.autopark.service.BookingConflictException;
+import com.example.autopark.autopark.service.BookingIntakeRejectedException;
+import com.example.autopark.autopark.service.BookingIntakeService;
 import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.JsonStreamService;
+import com.example.autopark.autopark.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер для управления бронированиями.
- * Предоставляет REST API для работы с бронированиями, включая создание, отмену и получение данных о бронированиях.
+ * Предоставляет REST API для работы с бронированиями, включая создание (в том числе через асинхронную очередь),
+ * отмену и получение данных о бронированиях.
+ * Клиент создает, просматривает и отменяет только свои бронирования (ID пользователя берется из JWT-токена),
+ * администратор — бронирования любого пользователя.
  */
 @RestController
 @RequestMapping("/api/bookings")
@@ -20,14 +36,35 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingIntakeService bookingIntakeService;
+
+    @Autowired
+    private JsonStreamService jsonStreamService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     /**
      * Получает все бронирования для указанного пользователя.
+     * Если ETag из If-None-Match совпадает с текущей версией бронирований пользователя,
+     * возвращает 304 (Not Modified) без обращения к базе данных.
      *
-     * @param userId ID пользователя
-     * @return Список бронирований пользователя в формате ResponseEntity
+     * @param userId         ID пользователя
+     * @param webRequest     Текущий запрос для проверки If-None-Match
+     * @param authentication Текущая аутентификация
+     * @return Список DTO бронирований пользователя в формате ResponseEntity, null при ответе 304
+     *         или статус 403 (Forbidden), если клиент запрашивает чужие бронирования
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Booking>> getBookingsByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<BookingDTO>> getBookingsByUser(@PathVariable Long userId, ServletWebRequest webRequest,
+                                                              Authentication authentication) {
+        if (!BookingAccess.canAccess(authentication, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (ConditionalRequests.notModified(webRequest, resourceVersions.userBookingsVersion(userId))) {
+            return null;
+        }
         return ResponseEntity.ok(bookingService.getBookingsByUser(userId));
     }
 
@@ -35,24 +72,106 @@ public class BookingController {
      * Получает все бронирования для указанной машины.
      *
      * @param carId ID машины
-     * @return Список бронирований машины в формате ResponseEntity
+     * @return Список DTO бронирований машины в формате ResponseEntity
      */
     @GetMapping("/car/{carId}")
-    public ResponseEntity<List<Booking>> getBookingsByCar(@PathVariable Long carId) {
+    public ResponseEntity<List<BookingDTO>> getBookingsByCar(@PathVariable Long carId) {
         return ResponseEntity.ok(bookingService.getBookingsByCar(carId));
     }
 
     /**
      * Создает новое бронирование на основе данных, переданных в теле запроса.
+     * Бронирование клиента создается на пользователя из токена, userId из тела запроса учитывается
+     * только для администратора.
      *
-     * @param bookingDTO DTO с данными для создания бронирования
-     * @return ResponseEntity с сообщением об успешном создании или ошибке
+     * @param bookingDTO     DTO с данными для создания бронирования
+     * @param authentication Текущая аутентификация
+     * @return ResponseEntity с сообщением об успешном создании, статус 409 (Conflict), если машина
+     *         уже забронирована на эти даты, статус 403 (Forbidden), если пользователь не определен,
+     *         или статус 400 (Bad Request) при иной ошибке
      */
     @PostMapping
-    public ResponseEntity<String> createBooking(@RequestBody BookingDTO bookingDTO) {
+    public ResponseEntity<String> createBooking(@RequestBody BookingDTO bookingDTO, Authentication authentication) {
+        if (!assignOwner(bookingDTO, authentication)) {
+            return forbidden();
+        }
         try {
             bookingService.createBooking(bookingDTO);
             return ResponseEntity.ok("Бронирование успешно создано");
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Принимает запрос бронирования в асинхронную очередь.
+     * Бронирование создается позже вместе с другими запросами той же машины; результат можно получить
+     * по адресу из заголовка Location.
+     *
+     * Владелец бронирования определяется так же, как при синхронном создании.
+     *
+     * @param bookingDTO     DTO с данными для создания бронирования
+     * @param authentication Текущая аутентификация
+     * @return ResponseEntity со статусом 202 (Accepted) и состоянием PENDING,
+     *         статус 503 (Service Unavailable) с заголовком Retry-After, если очередь заполнена,
+     *         статус 403 (Forbidden), если пользователь не определен,
+     *         или статус 400 (Bad Request), если данные некорректны
+     */
+    @PostMapping(params = "async=true")
+    public ResponseEntity<?> submitBooking(@RequestBody BookingDTO bookingDTO, Authentication authentication) {
+        if (!assignOwner(bookingDTO, authentication)) {
+            return forbidden();
+        }
+        try {
+            BookingRequestStatus status = bookingIntakeService.submit(bookingDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/bookings/requests/" + status.getRequestId()))
+                    .body(status);
+        } catch (BookingIntakeRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Получает состояние запроса бронирования, принятого в асинхронную очередь.
+     *
+     * @param requestId ID запроса
+     * @return ResponseEntity с состоянием запроса или статус 404 (Not Found), если запрос неизвестен
+     */
+    @GetMapping("/requests/{requestId}")
+    public ResponseEntity<BookingRequestStatus> getRequestStatus(@PathVariable String requestId) {
+        return bookingIntakeService.status(requestId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Создает пакет бронирований в одной транзакции.
+     * Владелец бронирований определяется так же, как при создании одного бронирования.
+     *
+     * @param bookingDTOs    Список DTO с данными для создания бронирований
+     * @param authentication Текущая аутентификация
+     * @return ResponseEntity со списком созданных бронирований, статус 409 (Conflict), если хотя бы
+     *         одно бронирование пересекается с другим, статус 403 (Forbidden), если пользователь не определен,
+     *         или статус 400 (Bad Request) при иной ошибке
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(@RequestBody List<BookingDTO> bookingDTOs, Authentication authentication) {
+        for (BookingDTO bookingDTO : bookingDTOs) {
+            if (!assignOwner(bookingDTO, authentication)) {
+                return forbidden();
+            }
+        }
+        try {
+            return ResponseEntity.ok(bookingService.createBookings(bookingDTOs));
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -61,44 +180,75 @@ public class BookingController {
     /**
      * Отменяет бронирование по его ID.
      *
-     * @param bookingId ID бронирования
+     * @param bookingId      ID бронирования
+     * @param authentication Текущая аутентификация
      * @return ResponseEntity с сообщением об успешной отмене
+     *         или статус 403 (Forbidden), если клиент отменяет чужое бронирование
      */
     @DeleteMapping("/{bookingId}")
-    public ResponseEntity<String> cancelBooking(@PathVariable Long bookingId) {
+    public ResponseEntity<String> cancelBooking(@PathVariable Long bookingId, Authentication authentication) {
+        Optional<Long> ownerId = bookingService.getBookingUserId(bookingId);
+        if (ownerId.isPresent() && !BookingAccess.canAccess(authentication, ownerId.get())) {
+            return forbidden();
+        }
         bookingService.cancelBooking(bookingId);
         return ResponseEntity.ok("Бронирование успешно отменено");
     }
 
     /**
      * Получает все бронирования в системе.
-     * Преобразует список бронирований в DTO для передачи клиенту.
+     * DTO строятся непосредственно запросом, без загрузки пользователей и машин.
+     * Если указан afterId или limit, возвращает страницу бронирований с ID больше afterId.
      *
-     * @return Список DTO всех бронирований в формате ResponseEntity
+     * @param afterId ID последнего бронирования предыдущей страницы (необязательно)
+     * @param limit   Размер страницы (необязательно)
+     * @return Список DTO бронирований в формате ResponseEntity
      */
     @GetMapping
-    public ResponseEntity<List<BookingDTO>> getAllBookings() {
-        List<Booking> bookings = bookingService.findAll();
-        List<BookingDTO> bookingDTOs = bookings.stream()
-                .map(this::convertToDTO)
-                .toList();
-        return ResponseEntity.ok(bookingDTOs);
+    public ResponseEntity<List<BookingDTO>> getAllBookings(@RequestParam(required = false) Long afterId,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(bookingService.findAllAsDTO());
+        }
+        int pageSize = KeysetPagination.limit(limit);
+        List<BookingDTO> page = bookingService.findPage(KeysetPagination.afterId(afterId), pageSize);
+        return KeysetPagination.page(page, pageSize, BookingDTO::getId);
+    }
+
+    /**
+     * Выдает все бронирования потоком в виде JSON-массива DTO с постоянным расходом памяти.
+     *
+     * @return ResponseEntity с телом для потоковой записи
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamService.stream(bookingService::streamAllAsDTO));
+    }
+
+    /**
+     * Назначает владельца бронирования по токену (см. BookingAccess.ownerId).
+     *
+     * @param bookingDTO     DTO бронирования
+     * @param authentication Текущая аутентификация
+     * @return false, если владелец не может быть определен
+     */
+    private static boolean assignOwner(BookingDTO bookingDTO, Authentication authentication) {
+        Long ownerId = BookingAccess.ownerId(authentication, bookingDTO.getUserId());
+        if (ownerId == null && !BookingAccess.isAdmin(authentication)) {
+            return false;
+        }
+        bookingDTO.setUserId(ownerId);
+        return true;
     }
 
     /**
-     * Преобразует объект бронирования (Booking) в DTO (BookingDTO).
+     * Формирует ответ 403 (Forbidden) при обращении к чужим бронированиям.
      *
-     * @param booking Объект бронирования для преобразования
-     * @return DTO с данными бронирования
+     * @return ResponseEntity со статусом 403
      */
-    private BookingDTO convertToDTO(Booking booking) {
-        BookingDTO dto = new BookingDTO();
-        dto.setId(booking.getId());
-        dto.setStartDate(booking.getStartDate());
-        dto.setEndDate(booking.getEndDate());
-        dto.setUserId(booking.getUser().getId());
-        dto.setCarId(booking.getCar().getId());
-
-        return dto;
+    private static ResponseEntity<String> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Нет доступа к бронированиям другого пользователя.");
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,41 @@
 package com.example.autopark.autopark.controller;
 
 import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarSearchResult;
 import com.example.autopark.autopark.repository.CarRepository;
+import com.example.autopark.autopark.service.AvailabilityEventBus;
+import com.example.autopark.autopark.service.CarHasBookingsException;
+import com.example.autopark.autopark.service.CarImportConflictException;
+import com.example.autopark.autopark.service.CarImportException;
+import com.example.autopark.autopark.service.CarImportService;
+import com.example.autopark.autopark.service.CarSearchIndex;
+import com.example.autopark.autopark.service.CarService;
+import com.example.autopark.autopark.service.JsonStreamService;
+import com.example.autopark.autopark.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Контроллер для управления машинами.
- * Предоставляет REST API для работы с машинами, включая получение, создание, удаление и поиск доступных машин.
+ * Предоставляет REST API для работы с машинами, включая получение, создание, пакетный импорт, удаление,
+ * поиск с фасетами, поиск доступных машин и поток событий об изменении их доступности.
  */
 @RestController
 @RequestMapping("/api/cars")
@@ -20,14 +44,118 @@ public class CarController {
     @Autowired
     private CarRepository carRepository;
 
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarImportService carImportService;
+
+    @Autowired
+    private JsonStreamService jsonStreamService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private AvailabilityEventBus availabilityEvents;
+
+    // После истечения клиент переподключается с Last-Event-ID и получает пропущенные события
+    @Value("${autopark.events.timeout:PT30M}")
+    private Duration eventsTimeout;
+
     /**
      * Получает список всех машин.
+     * Если указан afterId или limit, возвращает страницу машин с ID больше afterId.
+     * Если ETag из If-None-Match совпадает с текущей версией каталога,
+     * возвращает 304 (Not Modified) без обращения к базе данных.
      *
-     * @return Список всех машин в формате ResponseEntity
+     * @param afterId    ID последней машины предыдущей страницы (необязательно)
+     * @param limit      Размер страницы (необязательно)
+     * @param webRequest Текущий запрос для проверки If-None-Match
+     * @return Список машин в формате ResponseEntity или null при ответе 304
      */
     @GetMapping
-    public ResponseEntity<List<Car>> getAllCars() {
-        return ResponseEntity.ok(carRepository.findAll());
+    public ResponseEntity<List<Car>> getAllCars(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(required = false) Integer limit,
+                                                ServletWebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, resourceVersions.catalogVersion("cars"))) {
+            return null;
+        }
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(carService.getAllCars());
+        }
+        int pageSize = KeysetPagination.limit(limit);
+        List<Car> page = carRepository.findByIdGreaterThanOrderByIdAsc(KeysetPagination.afterId(afterId), Limit.of(pageSize));
+        return KeysetPagination.page(page, pageSize, Car::getId);
+    }
+
+    /**
+     * Выдает все машины потоком в виде JSON-массива с постоянным расходом памяти.
+     *
+     * @return ResponseEntity с телом для потоковой записи
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllCars() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamService.stream(carRepository::streamAll));
+    }
+
+    /**
+     * Открывает поток SSE с изменениями машин (car-created, car-updated, car-deleted) и бронирований
+     * (booking-created, booking-cancelled), чтобы клиент обновлял список доступных машин без повторных запросов.
+     * Событие resync означает, что клиент пропустил события и должен заново загрузить список.
+     * Соединение не занимает поток сервера, пока нет событий.
+     *
+     * @param lastEventId ID последнего полученного события при переподключении (необязательно)
+     * @return Поток событий
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        availabilityEvents.subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Ищет машины по марке, модели, диапазонам года выпуска и цены за сутки и возвращает фасеты:
+     * сколько машин найдется для каждой марки, модели, года и интервала цен при остальных фильтрах.
+     * Несколько значений brand или model объединяются через ИЛИ. Машины упорядочены по возрастанию цены.
+     * Если ETag из If-None-Match совпадает с текущей версией каталога,
+     * возвращает 304 (Not Modified) без построения ответа.
+     *
+     * @param brand      Марки (необязательно)
+     * @param model      Модели (необязательно)
+     * @param yearFrom   Минимальный год выпуска (необязательно)
+     * @param yearTo     Максимальный год выпуска (необязательно)
+     * @param priceFrom  Минимальная цена за сутки (необязательно)
+     * @param priceTo    Максимальная цена за сутки (необязательно)
+     * @param available  Только доступные или только недоступные машины (необязательно)
+     * @param limit      Сколько машин вернуть (необязательно)
+     * @param webRequest Текущий запрос для проверки If-None-Match
+     * @return Результат поиска в формате ResponseEntity, null при ответе 304,
+     *         или статус 400 (Bad Request), если диапазон задан некорректно
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CarSearchResult> searchCars(@RequestParam(required = false) List<String> brand,
+                                                      @RequestParam(required = false) List<String> model,
+                                                      @RequestParam(required = false) Integer yearFrom,
+                                                      @RequestParam(required = false) Integer yearTo,
+                                                      @RequestParam(required = false) Double priceFrom,
+                                                      @RequestParam(required = false) Double priceTo,
+                                                      @RequestParam(required = false) Boolean available,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      ServletWebRequest webRequest) {
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo
+                || priceFrom != null && priceTo != null && priceFrom > priceTo) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ConditionalRequests.notModified(webRequest, resourceVersions.catalogVersion("search"))) {
+            return null;
+        }
+        CarSearchIndex.Query query = new CarSearchIndex.Query(brand, model, yearFrom, yearTo, priceFrom, priceTo,
+                available, KeysetPagination.limit(limit));
+        return ResponseEntity.ok(carService.searchCars(query)); // Ответ из инвертированного индекса
     }
 
     /**
@@ -38,7 +166,7 @@ public class CarController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Car> getCarById(@PathVariable Long id) {
-        Optional<Car> car = carRepository.findById(id);
+        Optional<Car> car = carService.getCarById(id);
         return car.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -46,11 +174,42 @@ public class CarController {
      * Добавляет новую машину в систему.
      *
      * @param car Объект машины, переданный в теле запроса
-     * @return ResponseEntity с сохраненной машиной
+     * @return ResponseEntity с сохраненной машиной или статус 400 (Bad Request), если в теле передан ID
      */
     @PostMapping
-    public ResponseEntity<Car> createCar(@RequestBody Car car) {
-        return ResponseEntity.ok(carRepository.save(car));
+    public ResponseEntity<?> createCar(@RequestBody Car car) {
+        try {
+            return ResponseEntity.ok(carService.addCar(car));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Импортирует машины из файла CSV (text/csv) или JSON Lines (application/x-ndjson), переданного в теле запроса.
+     * Строки проверяются по мере чтения и вставляются пакетами; каждый пакет фиксируется вместе с контрольной точкой,
+     * поэтому после сбоя повторный запрос с тем же importId продолжит импорт с первой незафиксированной строки.
+     *
+     * @param importId    ID импорта для продолжения после сбоя (необязательно)
+     * @param contentType Тип содержимого запроса, определяющий формат файла
+     * @param body        Поток тела запроса
+     * @return Отчет об импорте со скоростью обработки и отклоненными строками
+     *         или статус 400 (Bad Request), если формат, заголовок CSV или ID импорта некорректны,
+     *         или статус 409 (Conflict), если импорт с тем же importId уже выполняется
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCars(@RequestParam(required = false) String importId,
+                                        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                        InputStream body) {
+        try {
+            return ResponseEntity.ok(carImportService.importCars(body, CarImportService.Format.of(contentType), importId));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Не удалось прочитать файл импорта");
+        } catch (CarImportException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (CarImportConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
 
     /**
@@ -58,22 +217,52 @@ public class CarController {
      *
      * @param id ID машины
      * @return ResponseEntity с сообщением об успешном удалении
+     *         или статус 409 (Conflict), если у машины есть бронирования
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteCar(@PathVariable Long id) {
-        carRepository.deleteById(id);
+        try {
+            carService.deleteCar(id);
+        } catch (CarHasBookingsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         return ResponseEntity.ok("Машина успешно удалена");
     }
 
     /**
-     * Получает список всех доступных машин.
-     * Доступные машины — это те, у которых поле "available" установлено в true.
+     * Получает список доступных машин.
+     * Если период не указан, возвращает машины, у которых поле "available" установлено в true.
+     * Если указаны обе даты, возвращает машины, свободные на весь период (даты включительно).
+     * Если ETag из If-None-Match совпадает с текущей версией машин (и бронирований — для периода),
+     * возвращает 304 (Not Modified) без построения ответа.
      *
-     * @return Список доступных машин в формате ResponseEntity
+     * @param from       Дата начала периода (необязательно)
+     * @param to         Дата окончания периода (необязательно)
+     * @param webRequest Текущий запрос для проверки If-None-Match
+     * @return Список доступных машин в формате ResponseEntity, null при ответе 304,
+     *         или статус 400 (Bad Request), если период задан некорректно или длиннее допустимого бронирования
      */
     @GetMapping("/available")
-    public ResponseEntity<List<Car>> getAvailableCars() {
-        List<Car> cars = carRepository.findByAvailableTrue(); // Получаем доступные машины из базы данных
-        return ResponseEntity.ok(cars);
+    public ResponseEntity<List<Car>> getAvailableCars(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            ServletWebRequest webRequest) {
+        if (from == null && to == null) {
+            if (ConditionalRequests.notModified(webRequest, resourceVersions.catalogVersion("available"))) {
+                return null;
+            }
+            return ResponseEntity.ok(carService.getAvailableCars()); // Машины с флагом available
+        }
+        if (from == null || to == null || from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ConditionalRequests.notModified(webRequest, resourceVersions.availabilityVersion())) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(carService.getAvailableCars(from, to)); // Ответ из индекса занятости
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build(); // Период длиннее допустимого бронирования
+        }
     }
 }
\ No newline at end of file
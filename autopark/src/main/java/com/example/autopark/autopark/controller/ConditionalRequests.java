@@ -0,0 +1,66 @@
+package com.example.autopark.autopark.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Вспомогательные методы для условных запросов (If-None-Match).
+ * ETag строится из версии данных и формата ответа: для CBOR используется строгий ETag,
+ * а для JSON — слабый, так как JSON-ответ может передаваться сжатым (Tomcat не сжимает ответы со строгим ETag).
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Проверяет, есть ли у клиента актуальная версия ответа. Если есть, ответ 304 (Not Modified)
+     * уже подготовлен и обработчик должен вернуть null; иначе ETag добавлен к ответу.
+     *
+     * @param request Текущий запрос
+     * @param version Версия данных ответа
+     * @return true, если данные не изменились, иначе false
+     */
+    static boolean notModified(ServletWebRequest request, String version) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        String etag = prefersCbor(request.getHeader(HttpHeaders.ACCEPT))
+                ? "\"" + version + "-cbor\""
+                : "W/\"" + version + "-json\"";
+        return request.checkNotModified(etag);
+    }
+
+    /**
+     * Определяет, какой из поддерживаемых форматов клиент предпочитает.
+     *
+     * @param accept Значение заголовка Accept
+     * @return true, если CBOR указан раньше JSON (с учетом q), иначе false
+     */
+    private static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        // Сортировка устойчива: при равном q конкретный тип идет раньше шаблона, иначе сохраняется порядок заголовка
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType mediaType : mediaTypes) {
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
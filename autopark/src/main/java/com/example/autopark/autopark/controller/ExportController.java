@@ -0,0 +1,55 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.service.CsvExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Контроллер выгрузок для бухгалтерии.
+ * Предоставляет REST API для потоковой выгрузки истории бронирований в CSV.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType TEXT_PLAIN = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    /**
+     * Выгружает бронирования, начинающиеся в периоде, в CSV с числом суток аренды и выручкой.
+     * Строки пишутся в ответ по мере чтения из базы данных с постоянным расходом памяти.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода (включительно)
+     * @return ResponseEntity с телом для потоковой записи
+     *         или статус 400 (Bad Request) с сообщением об ошибке, если период некорректен
+     */
+    @GetMapping("/bookings.csv")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest()
+                    .contentType(TEXT_PLAIN)
+                    .body(out -> out.write("Некорректный период".getBytes(StandardCharsets.UTF_8)));
+        }
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("bookings_" + from + "_" + to + ".csv")
+                .build();
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(csvExportService.bookings(from, to));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.autopark.autopark.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Вспомогательные методы для постраничной выдачи по ключу (keyset pagination).
+ * Клиент передает ID последней полученной записи в параметре afterId и размер страницы в limit;
+ * если страница заполнена полностью, ID для следующего запроса возвращается в заголовке X-Next-After-Id.
+ */
+final class KeysetPagination {
+
+    static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Возвращает ID, после которого начинается страница.
+     *
+     * @param afterId ID последней полученной записи или null для первой страницы
+     * @return ID для условия id > afterId
+     */
+    static long afterId(Long afterId) {
+        return afterId == null ? 0L : afterId;
+    }
+
+    /**
+     * Ограничивает размер страницы допустимым диапазоном.
+     *
+     * @param limit Запрошенный размер страницы или null
+     * @return Размер страницы от 1 до MAX_LIMIT
+     */
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Формирует ответ со страницей записей и, если страница заполнена, ключом следующей страницы.
+     *
+     * @param rows  Записи страницы, упорядоченные по ID
+     * @param limit Размер страницы
+     * @param id    Функция получения ID записи
+     * @param <T>   Тип записи
+     * @return ResponseEntity со страницей записей
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> rows, int limit, Function<T, Long> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (rows.size() == limit) {
+            response.header(NEXT_AFTER_ID_HEADER, String.valueOf(id.apply(rows.get(rows.size() - 1))));
+        }
+        return response.body(rows);
+    }
+}
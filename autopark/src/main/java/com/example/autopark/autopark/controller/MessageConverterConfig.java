@@ -0,0 +1,32 @@
+package com.example.autopark.autopark.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Настройка форматов ответов REST API.
+ * Помимо JSON ответы могут выдаваться в бинарном формате CBOR (Accept: application/cbor):
+ * он не повторяет текстовые имена полей в кавычках и кодирует числа и даты в двоичном виде.
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    /**
+     * Создает конвертер CBOR на основе общих настроек Jackson приложения.
+     * Даты записываются массивами чисел [год, месяц, день], а не строками ISO.
+     *
+     * @param builder Построитель ObjectMapper с настройками Spring Boot
+     * @return Конвертер сообщений CBOR
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.autopark.autopark.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+
+/**
+ * Отладочный заголовок X-Query-Count с числом SQL-запросов, выполненных при обработке запроса.
+ * Включается свойством autopark.debug.query-count-header (профиль h2 и тесты), в рабочей конфигурации выключен.
+ * Учитываются запросы Hibernate в потоке обработки запроса до записи тела ответа;
+ * запросы потоковых ответов и асинхронных задач в других потоках в заголовок не попадают.
+ */
+@Configuration
+@ConditionalOnProperty(name = "autopark.debug.query-count-header", havingValue = "true")
+public class QueryCountHeaderConfig {
+
+    static final String HEADER = "X-Query-Count";
+
+    /**
+     * Подключает счетчик запросов к Hibernate.
+     *
+     * @return Настройка свойств Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    /**
+     * Обнуляет счетчик запросов в начале обработки каждого запроса.
+     *
+     * @return Фильтр обнуления счетчика
+     */
+    @Bean
+    public OncePerRequestFilter statementCounterResetFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                StatementCounter.reset();
+                filterChain.doFilter(request, response);
+            }
+        };
+    }
+
+    /**
+     * Добавляет заголовок с числом запросов непосредственно перед записью тела ответа,
+     * пока заголовки еще можно изменить.
+     */
+    @ControllerAdvice
+    @ConditionalOnProperty(name = "autopark.debug.query-count-header", havingValue = "true")
+    static class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            response.getHeaders().set(HEADER, Integer.toString(StatementCounter.current()));
+            return body;
+        }
+    }
+}
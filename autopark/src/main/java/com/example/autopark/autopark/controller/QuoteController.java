@@ -0,0 +1,45 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.service.QuoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Контроллер расчета стоимости аренды.
+ * Предоставляет REST API для сравнения стоимости аренды всех свободных машин на выбранный период.
+ */
+@RestController
+@RequestMapping("/api/quotes")
+public class QuoteController {
+
+    @Autowired
+    private QuoteService quoteService;
+
+    /**
+     * Рассчитывает стоимость аренды каждой машины, свободной на весь период, с учетом скидок
+     * на выходные дни и за длительную аренду.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода (включительно)
+     * @param sort Порядок сортировки: price — по возрастанию стоимости (необязательно)
+     * @return Список расчетов стоимости в формате ResponseEntity
+     *         или статус 400 (Bad Request), если период или порядок сортировки заданы некорректно
+     */
+    @GetMapping
+    public ResponseEntity<?> getQuotes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(required = false) String sort) {
+        if (sort != null && !sort.equals("price")) {
+            return ResponseEntity.badRequest().body("Неизвестный порядок сортировки: " + sort);
+        }
+        try {
+            return ResponseEntity.ok(quoteService.quote(from, to, sort != null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.service.OccupancyReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Контроллер отчетов для администратора.
+ * Предоставляет REST API для отчетов о занятости автопарка.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private OccupancyReportService occupancyReportService;
+
+    /**
+     * Получает отчет о занятости автопарка за период.
+     *
+     * @param from    Дата начала периода
+     * @param to      Дата окончания периода (включительно)
+     * @param groupBy Группировка: car, brand или day (по умолчанию day)
+     * @return Строки отчета в формате ResponseEntity
+     *         или статус 400 (Bad Request), если период или группировка заданы некорректно
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<?> getOccupancy(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(defaultValue = "day") String groupBy) {
+        OccupancyReportService.GroupBy grouping;
+        try {
+            grouping = OccupancyReportService.GroupBy.valueOf(groupBy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Неизвестная группировка: " + groupBy);
+        }
+        try {
+            return ResponseEntity.ok(occupancyReportService.occupancy(from, to, grouping));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
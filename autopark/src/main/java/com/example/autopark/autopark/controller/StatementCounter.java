@@ -0,0 +1,42 @@
+package com.example.autopark.autopark.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Счетчик SQL-запросов, подготовленных Hibernate в текущем потоке.
+ * В отличие от общей статистики Hibernate (Statistics), счет ведется отдельно для каждого потока,
+ * поэтому одновременные запросы к серверу не искажают значения друг друга.
+ * Используется для отладочного заголовка с числом запросов к базе данных (QueryCountHeaderConfig).
+ */
+class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Учитывает подготовленный запрос, не изменяя его текст.
+     *
+     * @param sql Текст SQL-запроса
+     * @return Тот же текст SQL-запроса
+     */
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Обнуляет счетчик текущего потока.
+     */
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает число запросов, подготовленных в текущем потоке после последнего обнуления.
+     *
+     * @return Число запросов
+     */
+    static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -2,15 +2,23 @@ package com.example.autopark.autopark.controller;
 
 import com.example.autopark.autopark.entity.*;
 import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.JsonStreamService;
 import com.example.autopark.autopark.service.JwtService;
+import com.example.autopark.autopark.service.PasswordHashingRejectedException;
+import com.example.autopark.autopark.service.RefreshTokenService;
 import com.example.autopark.autopark.service.UserService;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Контроллер для управления пользователями.
@@ -22,8 +30,9 @@ public class UserController {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final JsonStreamService jsonStreamService;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Конструктор класса UserController.
@@ -31,58 +40,88 @@ public class UserController {
      * @param userService  Сервис для работы с пользователями
      * @param userRepository Репозиторий для доступа к данным пользователей
      * @param jwtService   Сервис для работы с JWT-токенами
+     * @param jsonStreamService Сервис потоковой выдачи JSON
+     * @param refreshTokenService Сервис refresh-токенов
      */
-    public UserController(UserService userService, UserRepository userRepository, JwtService jwtService) {
+    public UserController(UserService userService, UserRepository userRepository, JwtService jwtService,
+                          JsonStreamService jsonStreamService, RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.jwtService = jwtService;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.jsonStreamService = jsonStreamService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
      * Регистрирует нового пользователя.
      *
      * @param user Объект пользователя, переданный в теле запроса
-     * @return ResponseEntity с созданным пользователем
+     * @return Future с ResponseEntity с созданным пользователем
      */
-    public ResponseEntity<User> registerUser(@RequestBody User user) {
-        User createdUser = userService.registerUser(user);
-        return ResponseEntity.ok(createdUser);
+    public CompletableFuture<ResponseEntity<User>> registerUser(@RequestBody User user) {
+        return userService.registerUser(user).thenApply(ResponseEntity::ok);
     }
 
     /**
      * Регистрирует нового пользователя на основе данных, переданных в формате Map.
+     * Пароль хешируется в пуле хеширования, поток обработки запроса при этом освобождается.
      *
      * @param userData Map с данными пользователя (username и password)
-     * @return ResponseEntity с сообщением об успешной регистрации или ошибкой, если пользователь уже существует
+     * @return Future с ResponseEntity с сообщением об успешной регистрации, ошибкой, если пользователь уже существует,
+     *         или статусом 503 (Service Unavailable), если очередь хеширования заполнена
      */
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody Map<String, String> userData) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody Map<String, String> userData) {
         String username = userData.get("username");
         String password = userData.get("password");
 
         if (userService.existsByUsername(username)) {
-            return ResponseEntity.badRequest().body("Пользователь с таким именем уже существует.");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Пользователь с таким именем уже существует."));
         }
 
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));  // Хешируем пароль
+        user.setPassword(password);
         user.setRole(Role.CUSTOMER);  // По умолчанию обычный пользователь
 
-        userRepository.save(user);
-
-        return ResponseEntity.ok("Пользователь зарегистрирован.");
+        try {
+            return userService.registerUser(user)
+                    .thenApply(saved -> ResponseEntity.ok("Пользователь зарегистрирован."));
+        } catch (PasswordHashingRejectedException e) {
+            return CompletableFuture.completedFuture(serviceUnavailable(e));
+        }
     }
 
     /**
      * Получает список всех пользователей.
+     * Если указан afterId или limit, возвращает страницу пользователей с ID больше afterId.
      *
-     * @return Список всех пользователей в формате ResponseEntity
+     * @param afterId ID последнего пользователя предыдущей страницы (необязательно)
+     * @param limit   Размер страницы (необязательно)
+     * @return Список пользователей в формате ResponseEntity
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userRepository.findAll());
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) Long afterId,
+                                                  @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(userRepository.findAll());
+        }
+        int pageSize = KeysetPagination.limit(limit);
+        List<User> page = userRepository.findByIdGreaterThanOrderByIdAsc(KeysetPagination.afterId(afterId), Limit.of(pageSize));
+        return KeysetPagination.page(page, pageSize, User::getId);
+    }
+
+    /**
+     * Выдает всех пользователей потоком в виде JSON-массива с постоянным расходом памяти.
+     *
+     * @return ResponseEntity с телом для потоковой записи
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamService.stream(userRepository::streamAll));
     }
 
     /**
@@ -122,23 +161,62 @@ public class UserController {
 
     /**
      * Аутентифицирует пользователя и возвращает JWT-токен.
+     * Пароль проверяется в пуле хеширования, поток обработки запроса при этом освобождается;
+     * refresh-токен сохраняется уже в пуле задач приложения.
      *
      * @param loginData Map с данными для входа (username и password)
-     * @return ResponseEntity с JWT-токеном и информацией о пользователе при успешной аутентификации,
-     *         или статус 401 (Unauthorized) при неверных учетных данных
+     * @return Future с ResponseEntity с JWT-токеном, refresh-токеном и информацией о пользователе при успешной аутентификации,
+     *         статусом 401 (Unauthorized) при неверных учетных данных
+     *         или статусом 503 (Service Unavailable), если очередь хеширования заполнена
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginData) {
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody Map<String, String> loginData) {
         String username = loginData.get("username");
         String password = loginData.get("password");
         Optional<User> userOptional = userService.findByUsername(username);
-        if (userOptional.isEmpty() || !userService.checkPassword(password, userOptional.get())) {
-            return ResponseEntity.status(401).body("Неверные учетные данные.");
+        if (userOptional.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Неверные учетные данные."));
         }
 
         User user = userOptional.get();
-        String token = jwtService.generateToken(user.getUsername(), user.getRole().name());
-        return ResponseEntity.ok(Map.of("token", token, "id", user.getId(), "userType", user.getRole()));
+        try {
+            return userService.checkPassword(password, user).thenApply(matches -> {
+                if (!matches) {
+                    return ResponseEntity.status(401).body("Неверные учетные данные.");
+                }
+                return tokens(user, refreshTokenService.issue(user));
+            });
+        } catch (PasswordHashingRejectedException e) {
+            return CompletableFuture.completedFuture(serviceUnavailable(e));
+        }
+    }
+
+    /**
+     * Обменивает refresh-токен на новый JWT-токен без проверки пароля.
+     * Использованный refresh-токен становится недействительным, вместо него выдается новый.
+     *
+     * @param refreshData Map с refresh-токеном (refreshToken)
+     * @return ResponseEntity с новыми JWT-токеном и refresh-токеном
+     *         или статус 401 (Unauthorized), если refresh-токен недействителен
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody Map<String, String> refreshData) {
+        return refreshTokenService.rotate(refreshData.get("refreshToken"))
+                .<ResponseEntity<?>>map(rotation -> tokens(rotation.user(), rotation.refreshToken()))
+                .orElseGet(() -> ResponseEntity.status(401).body("Недействительный refresh-токен."));
+    }
+
+    /**
+     * Формирует ответ с новым JWT-токеном, refresh-токеном и информацией о пользователе.
+     *
+     * @param user         Пользователь
+     * @param refreshToken Refresh-токен пользователя
+     * @return ResponseEntity с токенами
+     */
+    private ResponseEntity<?> tokens(User user, String refreshToken) {
+        String token = jwtService.generateToken(user.getId(), user.getUsername(), user.getRole().name());
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", refreshToken,
+                "id", user.getId(), "userType", user.getRole()));
     }
 
     /**
@@ -152,4 +230,16 @@ public class UserController {
         Optional<User> users = userRepository.findByUsername(username);
         return ResponseEntity.ok(users);
     }
-}
\ No newline at end of file
+
+    /**
+     * Формирует ответ 503 (Service Unavailable) с заголовком Retry-After при переполнении очереди хеширования.
+     *
+     * @param e Исключение с рекомендуемой задержкой повтора
+     * @return ResponseEntity со статусом 503
+     */
+    private ResponseEntity<?> serviceUnavailable(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
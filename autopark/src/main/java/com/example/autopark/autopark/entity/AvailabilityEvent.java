@@ -0,0 +1,32 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Изменение доступности машин, рассылаемое подписчикам потока событий (GET /api/cars/events).
+ * Для событий машин передается сама машина (при удалении — только ID), для событий бронирований —
+ * ID бронирования, машины и период без данных пользователя.
+ * Повторное применение события не меняет результат, поэтому клиент может применять события поверх
+ * загруженного после resync списка, даже если часть из них уже в нем учтена.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class AvailabilityEvent {
+
+    public static final String CAR_CREATED = "car-created";
+    public static final String CAR_UPDATED = "car-updated";
+    public static final String CAR_DELETED = "car-deleted";
+    public static final String BOOKING_CREATED = "booking-created";
+    public static final String BOOKING_CANCELLED = "booking-cancelled";
+    // Подписчик пропустил события и должен заново загрузить список машин
+    public static final String RESYNC = "resync";
+
+    private long id; // Порядковый номер события, передается клиенту как id события SSE
+    private String type; // Тип события
+    private Long carId; // ID машины
+    private Car car; // Машина (для car-created и car-updated)
+    private Long bookingId; // ID бронирования (для событий бронирований)
+    private LocalDate startDate; // Начало периода бронирования
+    private LocalDate endDate; // Конец периода бронирования
+}
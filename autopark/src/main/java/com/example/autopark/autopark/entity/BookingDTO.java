@@ -2,7 +2,7 @@ package com.example.autopark.autopark.entity;
 import java.time.LocalDate;
 import lombok.*;
 
-@Getter @Setter
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class BookingDTO {
 
     private Long Id;
@@ -10,4 +10,16 @@ public class BookingDTO {
     private Long carId; // ID машины
     private LocalDate startDate;
     private LocalDate endDate;
+
+    /**
+     * Преобразует бронирование в DTO.
+     * Берет только ID пользователя и машины, поэтому не загружает связанные объекты.
+     *
+     * @param booking Объект бронирования для преобразования
+     * @return DTO с данными бронирования
+     */
+    public static BookingDTO from(Booking booking) {
+        return new BookingDTO(booking.getId(), booking.getUser().getId(), booking.getCar().getId(),
+                booking.getStartDate(), booking.getEndDate());
+    }
 }
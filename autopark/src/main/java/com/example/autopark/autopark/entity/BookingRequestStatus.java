@@ -0,0 +1,22 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+/**
+ * Состояние запроса бронирования, принятого в асинхронную очередь.
+ * Состояние PENDING сменяется ровно одним окончательным: CREATED, CONFLICT или REJECTED.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class BookingRequestStatus {
+
+    public static final String PENDING = "PENDING";
+    public static final String CREATED = "CREATED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String REJECTED = "REJECTED";
+
+    private String requestId; // ID запроса в очереди
+    private String status; // PENDING, CREATED, CONFLICT или REJECTED
+    private Long sequence; // Порядковый номер поступления: при пересечении выигрывает меньший
+    private BookingDTO booking; // Созданное бронирование (для CREATED)
+    private String message; // Причина отказа (для CONFLICT и REJECTED)
+}
@@ -1,5 +1,6 @@
 package com.example.autopark.autopark.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,4 +17,8 @@ public class Car {
     private int year;
     private double pricePerDay;
     private boolean available;
+
+    @Version
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
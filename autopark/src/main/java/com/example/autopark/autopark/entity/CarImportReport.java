@@ -0,0 +1,33 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Отчет о пакетном импорте машин.
+ * Счетчики относятся к текущему запуску; строки, зафиксированные предыдущими запусками с тем же importId, пропускаются.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CarImportReport {
+
+    private String importId; // Идентификатор импорта для продолжения после сбоя
+    private long skippedRows; // Строки, уже зафиксированные предыдущими запусками
+    private long rowsRead; // Строки, прочитанные в этом запуске
+    private long imported; // Добавленные машины
+    private long rejected; // Отклоненные строки
+    private int batches; // Зафиксированные пакеты
+    private long elapsedMillis; // Время импорта
+    private double rowsPerSecond; // Скорость обработки строк
+    private List<RejectedRow> rejectedRows; // Первые отклоненные строки с причинами
+
+    /**
+     * Отклоненная строка файла импорта.
+     */
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+    public static class RejectedRow {
+
+        private long row; // Номер строки данных, начиная с 1 (без заголовка CSV)
+        private String reason; // Причина отклонения
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат поиска машин с фасетами.
+ * Каждый фасет считается по машинам, подходящим под все фильтры, кроме фильтра по самому полю фасета,
+ * поэтому показывает, сколько машин будет найдено при выборе другого значения.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CarSearchResult {
+
+    private int total; // Число найденных машин
+    private List<Car> cars; // Самые дешевые из найденных машин
+    private Map<String, Integer> brands; // Марка -> число машин
+    private Map<String, Integer> models; // Модель -> число машин
+    private Map<Integer, Integer> years; // Год выпуска -> число машин
+    private Map<String, Integer> prices; // Интервал цен за сутки -> число машин
+}
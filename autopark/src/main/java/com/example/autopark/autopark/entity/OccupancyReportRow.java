@@ -0,0 +1,16 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+/**
+ * Строка отчета о занятости автопарка: занятость группы машин (машины, марки или дня) за период.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class OccupancyReportRow {
+
+    private String group; // ID машины, марка или дата — в зависимости от группировки
+    private int cars; // Число машин в группе
+    private long occupiedCarDays; // Занятые машино-сутки
+    private long totalCarDays; // Все машино-сутки группы за период
+    private double occupancy; // Доля занятых машино-суток
+}
@@ -0,0 +1,18 @@
+package com.example.autopark.autopark.entity;
+
+import lombok.*;
+
+/**
+ * Расчет стоимости аренды машины на период.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class QuoteDTO {
+
+    private Long carId;
+    private String brand;
+    private String model;
+    private int year;
+    private double pricePerDay;
+    private int days; // Число суток аренды, даты начала и окончания включительно
+    private double totalPrice; // Итоговая стоимость с учетом скидок
+}
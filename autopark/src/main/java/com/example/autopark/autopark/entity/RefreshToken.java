@@ -0,0 +1,34 @@
+package com.example.autopark.autopark.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * Refresh-токен пользователя.
+ * Сам токен клиенту выдается один раз, а в базе данных хранится только его хеш SHA-256.
+ * Индекс по сроку действия позволяет удалять истекшие токены одним запросом по диапазону.
+ * Токены удаляются базой данных вместе с пользователем.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", unique = true, nullable = false, length = 43)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.example.autopark.autopark.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -14,7 +15,9 @@ public class User {
     @Column(unique = true, nullable = false)
     private String username;
 
+    // Хеш пароля принимается при создании пользователя, но никогда не выдается в ответах
     @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Enumerated(EnumType.STRING)
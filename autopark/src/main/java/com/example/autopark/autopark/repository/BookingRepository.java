@@ -1,8 +1,19 @@
 package com.example.autopark.autopark.repository;
 
 import com.example.autopark.autopark.entity.Booking;
+import com.example.autopark.autopark.entity.BookingDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с бронированиями.
@@ -12,18 +23,86 @@ import java.util.List;
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     /**
-     * Находит все бронирования, связанные с указанным пользователем.
+     * Находит все бронирования вместе с пользователями и машинами одним запросом.
+     *
+     * @return Список всех бронирований с загруженными связями
+     */
+    @Override
+    @EntityGraph(attributePaths = {"user", "car"})
+    List<Booking> findAll();
+
+    /**
+     * Находит все бронирования, связанные с указанным пользователем, в виде DTO.
      *
      * @param userId ID пользователя
-     * @return Список бронирований, принадлежащих пользователю
+     * @return Список DTO бронирований, принадлежащих пользователю
+     */
+    @Query("select new com.example.autopark.autopark.entity.BookingDTO(b.id, b.user.id, b.car.id, b.startDate, b.endDate) from Booking b where b.user.id = :userId")
+    List<BookingDTO> findDTOByUserId(Long userId);
+
+    /**
+     * Находит все бронирования, связанные с указанным автомобилем, в виде DTO.
+     *
+     * @param carId ID автомобиля
+     * @return Список DTO бронирований, связанных с автомобилем
+     */
+    @Query("select new com.example.autopark.autopark.entity.BookingDTO(b.id, b.user.id, b.car.id, b.startDate, b.endDate) from Booking b where b.car.id = :carId")
+    List<BookingDTO> findDTOByCarId(Long carId);
+
+    /**
+     * Загружает все бронирования в виде DTO одним запросом, без загрузки связанных пользователей и машин.
+     *
+     * @return Список DTO всех бронирований
+     */
+    @Query("select new com.example.autopark.autopark.entity.BookingDTO(b.id, b.user.id, b.car.id, b.startDate, b.endDate) from Booking b")
+    List<BookingDTO> findAllAsDTO();
+
+    /**
+     * Находит страницу бронирований в виде DTO с ID больше указанного, упорядоченную по ID.
+     *
+     * @param afterId ID последнего бронирования предыдущей страницы
+     * @param limit   Размер страницы
+     * @return Список DTO бронирований страницы
+     */
+    @Query("select new com.example.autopark.autopark.entity.BookingDTO(b.id, b.user.id, b.car.id, b.startDate, b.endDate) from Booking b where b.id > :afterId order by b.id")
+    List<BookingDTO> findDTOPage(Long afterId, Limit limit);
+
+    /**
+     * Читает все бронирования в виде DTO потоком, упорядоченным по ID, с ограниченным размером выборки JDBC.
+     * Поток должен использоваться внутри транзакции и закрываться после чтения.
+     *
+     * @return Поток DTO бронирований
      */
-    List<Booking> findByUserId(Long userId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.autopark.autopark.entity.BookingDTO(b.id, b.user.id, b.car.id, b.startDate, b.endDate) from Booking b order by b.id")
+    Stream<BookingDTO> streamAllAsDTO();
 
     /**
-     * Находит все бронирования, связанные с указанным автомобилем.
+     * Проверяет, есть ли у машины бронирование, пересекающееся с указанным периодом (даты включительно).
+     *
+     * @param carId     ID автомобиля
+     * @param startDate Дата начала периода
+     * @param endDate   Дата окончания периода
+     * @return true, если найдено пересекающееся бронирование, иначе false
+     */
+    @Query("select count(b) > 0 from Booking b where b.car.id = :carId and b.startDate <= :endDate and b.endDate >= :startDate")
+    boolean existsOverlapping(Long carId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Проверяет, есть ли у машины хотя бы одно бронирование.
      *
      * @param carId ID автомобиля
-     * @return Список бронирований, связанных с автомобилем
+     * @return true, если у машины есть бронирования, иначе false
+     */
+    @Query("select count(b) > 0 from Booking b where b.car.id = :carId")
+    boolean existsByCarId(Long carId);
+
+    /**
+     * Находит ID пользователя, которому принадлежит бронирование, без загрузки бронирования.
+     *
+     * @param bookingId ID бронирования
+     * @return ID пользователя или пустой Optional, если бронирование не найдено
      */
-    List<Booking> findByCarId(Long carId);
-}
\ No newline at end of file
+    @Query("select b.user.id from Booking b where b.id = :bookingId")
+    Optional<Long> findUserIdById(Long bookingId);
+}
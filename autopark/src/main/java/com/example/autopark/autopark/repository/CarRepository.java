@@ -1,8 +1,19 @@
 package com.example.autopark.autopark.repository;
 
 import com.example.autopark.autopark.entity.Car;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с автомобилями.
@@ -18,4 +29,44 @@ public interface CarRepository extends JpaRepository<Car, Long> {
      * @return Список доступных автомобилей
      */
     List<Car> findByAvailableTrue();
+
+    /**
+     * Находит автомобиль для бронирования.
+     * При фиксации транзакции версия автомобиля увеличивается, поэтому две транзакции,
+     * одновременно бронирующие один автомобиль, не могут обе завершиться успешно.
+     *
+     * @param id ID автомобиля
+     * @return Optional, содержащий автомобиль, если он найден, или пустой Optional
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<Car> findForBookingById(Long id);
+
+    /**
+     * Находит автомобили для пакетного бронирования одним запросом.
+     * При фиксации транзакции версия каждого найденного автомобиля увеличивается.
+     *
+     * @param ids ID автомобилей
+     * @return Список найденных автомобилей
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    List<Car> findForBookingByIdIn(Collection<Long> ids);
+
+    /**
+     * Находит страницу автомобилей с ID больше указанного, упорядоченную по ID.
+     *
+     * @param afterId ID последнего автомобиля предыдущей страницы
+     * @param limit   Размер страницы
+     * @return Список автомобилей страницы
+     */
+    List<Car> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Читает все автомобили потоком, упорядоченным по ID, с ограниченным размером выборки JDBC.
+     * Поток должен использоваться внутри транзакции и закрываться после чтения.
+     *
+     * @return Поток автомобилей
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select c from Car c order by c.id")
+    Stream<Car> streamAll();
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.example.autopark.autopark.repository;
+
+import com.example.autopark.autopark.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Репозиторий для работы с refresh-токенами.
+ * Токены ищутся и удаляются только по хешу, сами токены в базе данных не хранятся.
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Находит refresh-токен по хешу вместе с его пользователем одним запросом.
+     *
+     * @param tokenHash Хеш токена
+     * @return Optional, содержащий токен, если он найден, или пустой Optional
+     */
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Удаляет refresh-токен по хешу.
+     *
+     * @param tokenHash Хеш токена
+     * @return Количество удаленных токенов (0, если токен уже был использован)
+     */
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash")
+    int deleteByTokenHash(String tokenHash);
+
+    /**
+     * Удаляет все токены, срок действия которых истек к указанному моменту.
+     *
+     * @param now Текущий момент времени
+     * @return Количество удаленных токенов
+     */
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
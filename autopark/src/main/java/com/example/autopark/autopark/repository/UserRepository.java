@@ -1,9 +1,16 @@
 package com.example.autopark.autopark.repository;
 
 import com.example.autopark.autopark.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с пользователями.
@@ -19,4 +26,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Optional, содержащий пользователя, если он найден, или пустой Optional, если пользователь отсутствует
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Находит страницу пользователей с ID больше указанного, упорядоченную по ID.
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы
+     * @param limit   Размер страницы
+     * @return Список пользователей страницы
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Читает всех пользователей потоком, упорядоченным по ID, с ограниченным размером выборки JDBC.
+     * Поток должен использоваться внутри транзакции и закрываться после чтения.
+     *
+     * @return Поток пользователей
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
 }
\ No newline at end of file
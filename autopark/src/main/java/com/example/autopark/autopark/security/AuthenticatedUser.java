@@ -0,0 +1,24 @@
+package com.example.autopark.autopark.security;
+
+import java.security.Principal;
+
+/**
+ * Пользователь, аутентифицированный по JWT-токену.
+ * ID пользователя берется из claim uid, имя — из sub, поэтому проверка владельца данных
+ * не требует обращения к базе данных.
+ *
+ * @param id       ID пользователя
+ * @param username Имя пользователя
+ */
+public record AuthenticatedUser(Long id, String username) implements Principal {
+
+    /**
+     * Возвращает имя пользователя.
+     *
+     * @return Имя пользователя
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+}
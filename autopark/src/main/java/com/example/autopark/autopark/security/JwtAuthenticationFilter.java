@@ -0,0 +1,97 @@
+package com.example.autopark.autopark.security;
+
+import com.example.autopark.autopark.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр аутентификации по JWT-токену из заголовка Authorization.
+ * Пользователь, его ID и роль берутся только из проверенных claims токена (sub, uid и role),
+ * поэтому фильтр не обращается к базе данных. Запросы без токена или с некорректным токеном
+ * остаются анонимными, а решение о доступе принимают правила SecurityConfig.
+ * Время проверки токена публикуется в метрике autopark.jwt.validation с результатом проверки.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    /**
+     * Конструктор класса JwtAuthenticationFilter.
+     *
+     * @param jwtService    Сервис для работы с JWT-токенами
+     * @param meterRegistry Реестр метрик
+     */
+    public JwtAuthenticationFilter(JwtService jwtService, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.validTimer = Timer.builder("autopark.jwt.validation")
+                .description("Время проверки JWT-токена")
+                .tag("result", "valid")
+                .register(meterRegistry);
+        this.invalidTimer = Timer.builder("autopark.jwt.validation")
+                .description("Время проверки JWT-токена")
+                .tag("result", "invalid")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Аутентифицирует запрос по токену, если он передан и валиден.
+     *
+     * @param request     HTTP-запрос
+     * @param response    HTTP-ответ
+     * @param filterChain Цепочка фильтров
+     * @throws ServletException Ошибка обработки запроса
+     * @throws IOException      Ошибка ввода-вывода
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            long start = System.nanoTime();
+            boolean valid = false;
+            try {
+                Claims claims = jwtService.extractAllClaims(header.substring(BEARER_PREFIX.length()));
+                String username = claims.getSubject();
+                String role = claims.get("role", String.class);
+                Long userId = claims.get("uid", Long.class);
+                if (username != null && role != null && claims.getExpiration().after(new Date())) {
+                    UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                            new AuthenticatedUser(userId, username), null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+                    SecurityContext context = SecurityContextHolder.createEmptyContext();
+                    context.setAuthentication(authentication);
+                    SecurityContextHolder.setContext(context);
+                    valid = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Некорректный или истекший токен — запрос остается анонимным
+                log.debug("JWT-токен отклонен: {}", e.getMessage());
+            }
+            (valid ? validTimer : invalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,8 +1,27 @@
 package com.example.autopark.autopark.security;
 
+import com.example.autopark.autopark.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.*;
+import org.springframework.http.HttpMethod;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Конфигурация безопасности приложения.
@@ -11,19 +30,94 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Создает цепочку фильтров для /actuator/prometheus, которая проверяется раньше основной.
+     * Prometheus опрашивает эндпоинт с постоянными логином и паролем (HTTP Basic), а не с JWT-токеном
+     * пользователя, срок действия которого — 15 минут. Если пароль не задан, эндпоинт закрыт.
+     *
+     * @param http            Объект HttpSecurity для конфигурирования безопасности
+     * @param passwordEncoder Кодировщик паролей для хранения хеша пароля опроса
+     * @param username        Логин Prometheus
+     * @param password        Пароль Prometheus
+     * @return Цепочка фильтров эндпоинта метрик
+     * @throws Exception Возможные исключения при настройке безопасности
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnWebApplication
+    public SecurityFilterChain metricsScrapeFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder,
+                                                        @Value("${autopark.metrics.scrape-username:prometheus}") String username,
+                                                        @Value("${autopark.metrics.scrape-password:}") String password) throws Exception {
+        http.securityMatcher("/actuator/prometheus")
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        if (password.isBlank()) {
+            http.authorizeHttpRequests(auth -> auth.anyRequest().denyAll());
+            return http.build();
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername(username)
+                .password(passwordEncoder.encode(password))
+                .roles("METRICS")
+                .build()));
+        http.authenticationManager(new ProviderManager(provider))
+                .httpBasic(Customizer.withDefaults())
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"));
+        return http.build();
+    }
+
     /**
      * Создает цепочку фильтров безопасности (SecurityFilterChain) для настройки правил доступа.
+     * Аутентификация выполняется без сессий по JWT-токену, вход, регистрация и обмен refresh-токена открыты,
+     * управление пользователями, машинами, просмотр всех бронирований, отчеты, выгрузки и эндпоинты Actuator,
+     * кроме проверки состояния и метрик Prometheus (см. metricsScrapeFilterChain), доступны только администратору,
+     * остальные запросы требуют аутентификации. Бронирования других пользователей клиенту недоступны —
+     * это проверяет BookingController по ID пользователя из токена.
+     * Не создается при запуске без HTTP-сервера (например, для импорта машин из командной строки).
      *
-     * @param http Объект HttpSecurity для конфигурирования безопасности
+     * @param http          Объект HttpSecurity для конфигурирования безопасности
+     * @param jwtService    Сервис для работы с JWT-токенами
+     * @param meterRegistry Реестр метрик для времени проверки токенов
      * @return Настроенная цепочка фильтров безопасности
      * @throws Exception Возможные исключения при настройке безопасности
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        // Отключаем защиту CSRF (Cross-Site Request Forgery)
-        // Разрешаем все запросы без аутентификации
-        http.csrf().disable().authorizeRequests().anyRequest().permitAll();
+    @ConditionalOnWebApplication
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtService jwtService, MeterRegistry meterRegistry) throws Exception {
+        // Отключаем защиту CSRF (Cross-Site Request Forgery) — токен передается в заголовке, а не в cookie
+        http.csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService, meterRegistry), UsernamePasswordAuthenticationFilter.class)
+                .authorizeHttpRequests(auth -> auth
+                        // Повторные диспетчеризации уже прошедших проверку запросов (потоковые ответы, ошибки)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/users/login", "/api/users/register", "/api/users/token/refresh")
+                        .permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/users", "/api/users/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/users").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/users/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/cars", "/api/cars/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/cars/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/bookings", "/api/bookings/car/**").hasRole("ADMIN")
+                        .requestMatchers("/api/reports/**", "/api/exports/**").hasRole("ADMIN")
+                        .anyRequest().authenticated());
 
         return http.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Создает единственный кодировщик паролей приложения.
+     * Стоимость BCrypt задается свойством, чтобы подбирать её по метрикам времени хеширования.
+     *
+     * @param strength Стоимость BCrypt (логарифм числа раундов)
+     * @return Кодировщик паролей
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${autopark.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
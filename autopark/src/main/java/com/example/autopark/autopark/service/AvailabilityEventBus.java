@@ -0,0 +1,302 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.AvailabilityEvent;
+import com.example.autopark.autopark.entity.Car;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Шина событий доступности машин внутри процесса и их рассылка подписчикам SSE (GET /api/cars/events).
+ * Сервисы публикуют изменения машин и бронирований после фиксации транзакции и снятия блокировки машины.
+ * Публикация только присваивает событию порядковый номер, сохраняет его в кольцевом буфере последних событий
+ * и будит поток рассылки, поэтому ее время не зависит от числа подписчиков. Поток рассылки запускает отправку
+ * подписчикам, а каждый подписчик сам читает события из кольцевого буфера, начиная с последнего отправленного.
+ * Отправка выполняется в виртуальном потоке, который запускается, только когда у подписчика есть что отправить,
+ * поэтому ожидающие подписчики не занимают потоков: соединение удерживается асинхронной обработкой запроса.
+ * Если подписчик не успевает читать и его события вытесняются из кольцевого буфера, он получает событие resync
+ * и должен заново загрузить список машин. Публикация никогда не ждет подписчиков.
+ * При переподключении с заголовком Last-Event-ID пропущенные события досылаются из кольцевого буфера,
+ * а если они уже вытеснены или ID выдан до перезапуска сервера, отправляется resync.
+ */
+@Service
+public class AvailabilityEventBus {
+
+    /**
+     * Подписчик потока событий.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Поток отправки запущен или будет запущен
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Номер последнего отправленного (или пропущенного при подписке) события
+        private volatile long cursor;
+        private volatile boolean resync;
+        // Первая проверка соединения отправляется сразу: запись фиксирует заголовки ответа у клиента
+        private volatile boolean heartbeat = true;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    // Идентификатор запуска в ID событий: Last-Event-ID от предыдущего запуска приводит к resync
+    private final String bootId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final Duration heartbeatInterval;
+    private final MeterRegistry meterRegistry;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicReferenceArray<AvailabilityEvent> history;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    // Рассылка уже запрошена: публикации, пришедшие до ее начала, объединяются в одну
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+
+    private ScheduledExecutorService heartbeats;
+    private ExecutorService dispatcher;
+    private Counter resyncs;
+    // Номер последнего события; записывается после сохранения события в кольцевой буфер
+    private volatile long lastId;
+
+    /**
+     * Конструктор класса AvailabilityEventBus.
+     *
+     * @param bufferSize        Размер кольцевого буфера последних событий: на сколько событий подписчик может отстать
+     * @param heartbeatInterval Период отправки комментария для проверки соединения
+     * @param meterRegistry     Реестр метрик для числа подписчиков и повторных синхронизаций
+     */
+    public AvailabilityEventBus(@Value("${autopark.events.buffer-size:256}") int bufferSize,
+                                @Value("${autopark.events.heartbeat:PT30S}") Duration heartbeatInterval,
+                                MeterRegistry meterRegistry) {
+        this.heartbeatInterval = heartbeatInterval;
+        this.meterRegistry = meterRegistry;
+        this.history = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+    }
+
+    /**
+     * Регистрирует метрики и запускает поток рассылки и периодическую проверку соединений.
+     */
+    @PostConstruct
+    public void start() {
+        Gauge.builder("autopark.events.subscribers", subscribers, Set::size)
+                .description("Число подписчиков потока событий доступности машин")
+                .register(meterRegistry);
+        resyncs = Counter.builder("autopark.events.resyncs")
+                .description("Число событий resync, отправленных подписчикам, которые пропустили события")
+                .register(meterRegistry);
+        dispatcher = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("events-dispatcher").daemon().factory());
+        heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("events-heartbeat").daemon().factory());
+        long period = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Закрывает потоки подписчиков и останавливает отправку.
+     */
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Подписывает клиента на поток событий.
+     *
+     * @param emitter     Поток SSE клиента
+     * @param lastEventId Значение Last-Event-ID при переподключении или null
+     */
+    public void subscribe(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        long last = lastId;
+        subscriber.cursor = last;
+        if (lastEventId != null) {
+            replay(subscriber, lastEventId, last);
+        }
+        subscribers.add(subscriber);
+        // События, опубликованные до добавления в список, подписчик дочитает сам
+        schedule(subscriber);
+    }
+
+    /**
+     * Публикует добавление или изменение машины.
+     *
+     * @param type AvailabilityEvent.CAR_CREATED или AvailabilityEvent.CAR_UPDATED
+     * @param car  Сохраненная машина
+     */
+    public void carChanged(String type, Car car) {
+        publish(new AvailabilityEvent(0, type, car.getId(), car, null, null, null));
+    }
+
+    /**
+     * Публикует удаление машины.
+     *
+     * @param carId ID удаленной машины
+     */
+    public void carDeleted(Long carId) {
+        publish(new AvailabilityEvent(0, AvailabilityEvent.CAR_DELETED, carId, null, null, null, null));
+    }
+
+    /**
+     * Публикует создание или отмену бронирования.
+     *
+     * @param type      AvailabilityEvent.BOOKING_CREATED или AvailabilityEvent.BOOKING_CANCELLED
+     * @param bookingId ID бронирования
+     * @param carId     ID машины
+     * @param startDate Начало периода бронирования
+     * @param endDate   Конец периода бронирования
+     */
+    public void bookingChanged(String type, Long bookingId, Long carId, LocalDate startDate, LocalDate endDate) {
+        publish(new AvailabilityEvent(0, type, carId, null, bookingId, startDate, endDate));
+    }
+
+    /**
+     * Присваивает событию номер, сохраняет его в кольцевом буфере и будит поток рассылки.
+     * Номера выдаются под короткой блокировкой, не зависящей от числа подписчиков, поэтому все подписчики
+     * читают события в одном порядке.
+     *
+     * @param event Событие без номера
+     */
+    private void publish(AvailabilityEvent event) {
+        synchronized (this) {
+            long id = lastId + 1;
+            event.setId(id);
+            history.set(slot(id), event);
+            lastId = id;
+        }
+        if (dispatchPending.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // Шина остановлена
+                dispatchPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Запускает отправку подписчикам, у которых есть непрочитанные события. Выполняется в потоке рассылки.
+     */
+    private void dispatch() {
+        dispatchPending.set(false);
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Продолжает поток с события после lastEventId или назначает resync, если события уже вытеснены
+     * из кольцевого буфера или ID выдан до перезапуска сервера.
+     */
+    private void replay(Subscriber subscriber, String lastEventId, long last) {
+        long after = parseId(lastEventId);
+        long oldest = Math.max(1, last - history.length() + 1);
+        if (after < 0 || after > last || after + 1 < oldest) {
+            subscriber.resync = true;
+        } else {
+            subscriber.cursor = after;
+        }
+    }
+
+    private int slot(long id) {
+        return (int) (id % history.length());
+    }
+
+    private boolean hasPending(Subscriber subscriber) {
+        return subscriber.resync || subscriber.heartbeat || subscriber.cursor < lastId;
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (hasPending(subscriber) && subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Отправляет подписчику все непрочитанные события из кольцевого буфера. Выполняется не более чем в одном
+     * потоке на подписчика. Если очередное событие уже вытеснено более новым, подписчик получает resync
+     * и продолжает с последнего опубликованного события.
+     * Ошибка записи означает, что клиент отключился: подписчик удаляется, его соединение закроет контейнер.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                long last = lastId;
+                while (subscriber.resync || subscriber.cursor < last) {
+                    AvailabilityEvent event = subscriber.resync ? null : history.get(slot(subscriber.cursor + 1));
+                    if (event == null || event.getId() != subscriber.cursor + 1) {
+                        subscriber.resync = false;
+                        subscriber.cursor = lastId;
+                        resyncs.increment();
+                        send(subscriber, new AvailabilityEvent(subscriber.cursor, AvailabilityEvent.RESYNC,
+                                null, null, null, null, null));
+                        last = subscriber.cursor;
+                    } else {
+                        send(subscriber, event);
+                        subscriber.cursor = event.getId();
+                    }
+                }
+                if (subscriber.heartbeat) {
+                    subscriber.heartbeat = false;
+                    subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                }
+                subscriber.scheduled.set(false);
+            } while (hasPending(subscriber) && subscriber.scheduled.compareAndSet(false, true));
+        } catch (Exception e) {
+            subscribers.remove(subscriber);
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void send(Subscriber subscriber, AvailabilityEvent event) throws Exception {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(bootId + "-" + event.getId())
+                .name(event.getType())
+                .data(event, MediaType.APPLICATION_JSON));
+    }
+
+    private long parseId(String eventId) {
+        String prefix = bootId + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
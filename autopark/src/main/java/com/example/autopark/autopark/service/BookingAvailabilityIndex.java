@@ -0,0 +1,215 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс занятости автомобилей в памяти.
+ * Для каждой машины хранит все интервалы бронирований и их объединение — непересекающиеся отрезки занятости,
+ * упорядоченные по дате начала, поэтому проверка пересечения дат выполняется за O(log n) без обращения к базе данных.
+ * Новые бронирования не пересекаются с существующими, но пересекающиеся записи, уже лежащие в базе данных,
+ * тоже учитываются верно: отмена одного из них не освобождает даты, занятые другим.
+ * Заполняется из BookingRepository при старте приложения и обновляется при создании и отмене бронирований.
+ * Все изменения передаются в посуточный индекс CarOccupancyIndex, используемый для поиска свободных машин.
+ * Даты начала и окончания бронирования считаются включительно.
+ */
+@Service
+public class BookingAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingAvailabilityIndex.class);
+
+    private static final Comparator<Interval> BY_START = Comparator.comparing(Interval::startDate)
+            .thenComparing(Interval::bookingId);
+
+    /**
+     * Интервал бронирования одной машины.
+     */
+    private record Interval(Long bookingId, Long carId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    /**
+     * Бронирования одной машины. Изменения и проверки выполняются под монитором объекта.
+     */
+    private static final class CarIntervals {
+
+        // Все интервалы машины в порядке даты начала
+        private final NavigableSet<Interval> intervals = new TreeSet<>(BY_START);
+
+        // Объединение интервалов: дата начала отрезка занятости -> дата его окончания
+        private final NavigableMap<LocalDate, LocalDate> covered = new TreeMap<>();
+
+        private boolean isFree(LocalDate startDate, LocalDate endDate) {
+            Map.Entry<LocalDate, LocalDate> segment = covered.floorEntry(endDate);
+            return segment == null || segment.getValue().isBefore(startDate);
+        }
+
+        private void add(Interval interval) {
+            intervals.add(interval);
+            cover(interval.startDate(), interval.endDate());
+        }
+
+        /**
+         * Удаляет интервал и пересобирает отрезок занятости, в который он входил.
+         *
+         * @return Оставшиеся интервалы этого отрезка
+         */
+        private NavigableSet<Interval> remove(Interval interval) {
+            intervals.remove(interval);
+            Map.Entry<LocalDate, LocalDate> segment = covered.floorEntry(interval.startDate());
+            covered.remove(segment.getKey());
+            NavigableSet<Interval> rest = intervals.subSet(
+                    new Interval(Long.MIN_VALUE, null, segment.getKey(), null), true,
+                    new Interval(Long.MAX_VALUE, null, segment.getValue(), null), true);
+            for (Interval remaining : rest) {
+                cover(remaining.startDate(), remaining.endDate());
+            }
+            return rest;
+        }
+
+        /**
+         * Добавляет период в объединение, сливая его с пересекающимися отрезками.
+         */
+        private void cover(LocalDate startDate, LocalDate endDate) {
+            LocalDate start = startDate;
+            LocalDate end = endDate;
+            Map.Entry<LocalDate, LocalDate> segment = covered.floorEntry(end);
+            while (segment != null && !segment.getValue().isBefore(start)) {
+                covered.remove(segment.getKey());
+                if (segment.getKey().isBefore(start)) {
+                    start = segment.getKey();
+                }
+                if (segment.getValue().isAfter(end)) {
+                    end = segment.getValue();
+                }
+                segment = covered.floorEntry(end);
+            }
+            covered.put(start, end);
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final CarOccupancyIndex occupancyIndex;
+
+    // Бронирования каждой машины
+    private final Map<Long, CarIntervals> intervalsByCar = new ConcurrentHashMap<>();
+
+    // Интервалы по ID бронирования — для отмены без запроса к базе данных
+    private final Map<Long, Interval> intervalsByBooking = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор класса BookingAvailabilityIndex.
+     *
+     * @param bookingRepository Репозиторий для загрузки существующих бронирований
+     * @param occupancyIndex    Посуточный индекс занятости автопарка
+     */
+    public BookingAvailabilityIndex(BookingRepository bookingRepository, CarOccupancyIndex occupancyIndex) {
+        this.bookingRepository = bookingRepository;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Загружает все существующие бронирования в индекс одним запросом при старте приложения.
+     */
+    @PostConstruct
+    public void load() {
+        int conflicts = 0;
+        for (BookingDTO booking : bookingRepository.findAllAsDTO()) {
+            if (!isFree(booking.getCarId(), booking.getStartDate(), booking.getEndDate())) {
+                conflicts++;
+            }
+            add(booking.getId(), booking.getCarId(), booking.getStartDate(), booking.getEndDate());
+        }
+        if (conflicts > 0) {
+            log.warn("В базе данных найдено {} пересекающихся бронирований: они учтены в индексе, но требуют проверки", conflicts);
+        }
+        log.info("Индекс занятости загружен: {} бронирований", intervalsByBooking.size());
+    }
+
+    /**
+     * Проверяет, свободна ли машина на весь указанный период.
+     * Так как отрезки занятости машины не пересекаются, достаточно проверить отрезок
+     * с наибольшей датой начала, не превышающей дату окончания запрошенного периода.
+     *
+     * @param carId     ID машины
+     * @param startDate Дата начала периода
+     * @param endDate   Дата окончания периода
+     * @return true, если на период нет ни одного бронирования машины, иначе false
+     */
+    public boolean isFree(Long carId, LocalDate startDate, LocalDate endDate) {
+        CarIntervals intervals = intervalsByCar.get(carId);
+        if (intervals == null) {
+            return true;
+        }
+        synchronized (intervals) {
+            return intervals.isFree(startDate, endDate);
+        }
+    }
+
+    /**
+     * Добавляет бронирование в индекс.
+     *
+     * @param bookingId ID бронирования
+     * @param carId     ID машины
+     * @param startDate Дата начала бронирования
+     * @param endDate   Дата окончания бронирования
+     */
+    public void add(Long bookingId, Long carId, LocalDate startDate, LocalDate endDate) {
+        Interval interval = new Interval(bookingId, carId, startDate, endDate);
+        CarIntervals intervals = intervalsByCar.computeIfAbsent(carId, id -> new CarIntervals());
+        synchronized (intervals) {
+            intervals.add(interval);
+            intervalsByBooking.put(bookingId, interval);
+            occupancyIndex.occupy(carId, startDate, endDate);
+        }
+    }
+
+    /**
+     * Удаляет бронирование из индекса.
+     *
+     * @param bookingId ID бронирования
+     * @return true, если бронирование было в индексе, иначе false
+     */
+    public boolean remove(Long bookingId) {
+        Interval interval = intervalsByBooking.get(bookingId);
+        if (interval == null) {
+            return false;
+        }
+        CarIntervals intervals = intervalsByCar.get(interval.carId());
+        synchronized (intervals) {
+            if (intervalsByBooking.remove(bookingId) == null) {
+                return false;
+            }
+            occupancyIndex.release(interval.carId(), interval.startDate(), interval.endDate());
+            // Возвращаем в посуточный индекс дни, которые покрывают оставшиеся бронирования машины
+            for (Interval remaining : intervals.remove(interval)) {
+                if (!remaining.endDate().isBefore(interval.startDate())
+                        && !remaining.startDate().isAfter(interval.endDate())) {
+                    occupancyIndex.occupy(remaining.carId(), remaining.startDate(), remaining.endDate());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает количество бронирований в индексе.
+     *
+     * @return Количество бронирований
+     */
+    public int size() {
+        return intervalsByBooking.size();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое, когда бронирование пересекается с уже существующим
+ * или было одновременно изменено другим запросом.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    /**
+     * Конструктор класса BookingConflictException.
+     *
+     * @param message Сообщение об ошибке
+     */
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
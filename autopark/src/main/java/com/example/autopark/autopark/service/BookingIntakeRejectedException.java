@@ -0,0 +1,29 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое, когда очередь приема бронирований заполнена
+ * и новый запрос не может быть принят.
+ */
+public class BookingIntakeRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Конструктор класса BookingIntakeRejectedException.
+     *
+     * @param retryAfterSeconds Через сколько секунд клиенту стоит повторить запрос
+     */
+    public BookingIntakeRejectedException(long retryAfterSeconds) {
+        super("Очередь бронирований заполнена, повторите попытку позже.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Возвращает рекомендуемую задержку перед повтором запроса.
+     *
+     * @return Задержка в секундах
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.BookingRequestStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный прием бронирований.
+ * Запрос проверяется, получает порядковый номер и ставится в ограниченную очередь, а клиент сразу получает
+ * ID для опроса состояния. Очереди разделены по машинам: все запросы одной машины попадают в одну очередь
+ * и обрабатываются одним потоком в порядке поступления. Поток забирает из очереди все накопившиеся запросы,
+ * группирует их по машинам и создает каждую группу одной транзакцией (BookingService.createCarGroup),
+ * поэтому при всплеске запросов число транзакций определяется числом машин, а не числом запросов.
+ * Результат зависит только от порядка поступления: из пересекающихся запросов выигрывает поступивший раньше.
+ * Состояние запроса хранится, пока он в очереди, и еще status-ttl после обработки; истекшие состояния
+ * не возвращаются и периодически удаляются.
+ */
+@Service
+public class BookingIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIntakeService.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * Запрос в очереди.
+     *
+     * @param requestId ID запроса
+     * @param sequence  Порядковый номер поступления
+     * @param booking   Данные бронирования
+     */
+    private record QueuedBooking(String requestId, long sequence, BookingDTO booking) {
+    }
+
+    /**
+     * Хранимое состояние запроса.
+     *
+     * @param status    Состояние
+     * @param expiresAt Момент истечения по System.nanoTime(); для запроса в очереди — Long.MAX_VALUE
+     */
+    private record StoredStatus(BookingRequestStatus status, long expiresAt) {
+
+        boolean expired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt > 0;
+        }
+    }
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${autopark.booking.intake.capacity:10000}")
+    private int capacity;
+
+    @Value("${autopark.booking.intake.workers:4}")
+    private int workerCount;
+
+    @Value("${autopark.booking.intake.max-drain:1000}")
+    private int maxDrain;
+
+    @Value("${autopark.booking.intake.status-ttl:PT1H}")
+    private Duration statusTtl;
+
+    private BlockingQueue<QueuedBooking>[] queues;
+    private Thread[] workers;
+    private final Map<String, StoredStatus> statuses = new ConcurrentHashMap<>();
+    private long nextSequence;
+    private volatile boolean running;
+
+    /**
+     * Создает очереди и запускает потоки обработки.
+     */
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void start() {
+        queues = new BlockingQueue[Math.max(1, workerCount)];
+        workers = new Thread[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayBlockingQueue<>(Math.max(1, capacity / queues.length));
+        }
+        Gauge.builder("autopark.booking.intake.queued", this, BookingIntakeService::queued)
+                .description("Число запросов бронирования в очереди приема")
+                .register(meterRegistry);
+        running = true;
+        for (int i = 0; i < workers.length; i++) {
+            BlockingQueue<QueuedBooking> queue = queues[i];
+            workers[i] = Thread.ofPlatform().name("booking-intake-" + i).daemon().start(() -> work(queue));
+        }
+    }
+
+    /**
+     * Останавливает прием и дожидается обработки уже принятых запросов.
+     *
+     * @throws InterruptedException Если ожидание было прервано
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Принимает запрос бронирования в очередь.
+     *
+     * @param bookingDTO DTO с данными для создания бронирования
+     * @return Состояние PENDING с ID запроса и порядковым номером
+     * @throws BookingIntakeRejectedException Если очередь машины заполнена или прием остановлен
+     * @throws RuntimeException               Если данные бронирования некорректны или период слишком длинный
+     */
+    public BookingRequestStatus submit(BookingDTO bookingDTO) {
+        if (bookingDTO.getCarId() == null || bookingDTO.getUserId() == null) {
+            throw new RuntimeException("Некорректные данные бронирования");
+        }
+        bookingService.checkPeriod(bookingDTO.getStartDate(), bookingDTO.getEndDate());
+        BookingDTO booking = new BookingDTO(null, bookingDTO.getUserId(), bookingDTO.getCarId(),
+                bookingDTO.getStartDate(), bookingDTO.getEndDate());
+        String requestId = UUID.randomUUID().toString();
+        BlockingQueue<QueuedBooking> queue = queues[partition(booking.getCarId())];
+        BookingRequestStatus pending;
+        // Номер выдается и запрос ставится в очередь атомарно, поэтому порядок в очереди совпадает с номерами
+        synchronized (this) {
+            if (!running) {
+                throw new BookingIntakeRejectedException(RETRY_AFTER_SECONDS);
+            }
+            pending = new BookingRequestStatus(requestId, BookingRequestStatus.PENDING, nextSequence, null, null);
+            // Состояние запроса в очереди не истекает, пока запрос не обработан
+            statuses.put(requestId, new StoredStatus(pending, Long.MAX_VALUE));
+            if (!queue.offer(new QueuedBooking(requestId, nextSequence, booking))) {
+                statuses.remove(requestId);
+                meterRegistry.counter("autopark.booking.intake.rejected").increment();
+                throw new BookingIntakeRejectedException(RETRY_AFTER_SECONDS);
+            }
+            nextSequence++;
+        }
+        return pending;
+    }
+
+    /**
+     * Возвращает состояние запроса.
+     *
+     * @param requestId ID запроса
+     * @return Состояние запроса или пустой Optional, если запрос неизвестен или его состояние устарело
+     */
+    public Optional<BookingRequestStatus> status(String requestId) {
+        StoredStatus stored = statuses.get(requestId);
+        if (stored == null || stored.expired(System.nanoTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(stored.status());
+    }
+
+    /**
+     * Периодически удаляет состояния запросов, обработанных раньше чем status-ttl назад.
+     */
+    @Scheduled(fixedDelayString = "${autopark.booking.intake.status-purge-interval:PT1M}")
+    public void purgeExpiredStatuses() {
+        long now = System.nanoTime();
+        statuses.values().removeIf(stored -> stored.expired(now));
+    }
+
+    /**
+     * Цикл потока обработки: забирает накопившиеся запросы и создает их группами по машинам.
+     *
+     * @param queue Очередь потока
+     */
+    private void work(BlockingQueue<QueuedBooking> queue) {
+        List<QueuedBooking> drained = new ArrayList<>(maxDrain);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                queue.drainTo(drained, maxDrain - 1);
+                process(drained);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки очереди бронирований", e);
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    /**
+     * Группирует запросы по машинам с сохранением порядка поступления и создает каждую группу.
+     *
+     * @param drained Запросы, забранные из очереди
+     */
+    private void process(List<QueuedBooking> drained) {
+        Map<Long, List<QueuedBooking>> byCar = new LinkedHashMap<>();
+        for (QueuedBooking queued : drained) {
+            byCar.computeIfAbsent(queued.booking().getCarId(), id -> new ArrayList<>()).add(queued);
+        }
+        for (Map.Entry<Long, List<QueuedBooking>> group : byCar.entrySet()) {
+            List<QueuedBooking> requests = group.getValue();
+            List<BookingService.GroupResult> results;
+            try {
+                results = bookingService.createCarGroup(group.getKey(),
+                        requests.stream().map(QueuedBooking::booking).toList());
+            } catch (RuntimeException e) {
+                log.error("Ошибка создания группы бронирований машины {}", group.getKey(), e);
+                BookingService.GroupResult failed = new BookingService.GroupResult(null, e);
+                results = requests.stream().map(request -> failed).toList();
+            }
+            long expiresAt = System.nanoTime() + statusTtl.toNanos();
+            for (int i = 0; i < requests.size(); i++) {
+                statuses.put(requests.get(i).requestId(),
+                        new StoredStatus(finalStatus(requests.get(i), results.get(i)), expiresAt));
+            }
+        }
+    }
+
+    private static BookingRequestStatus finalStatus(QueuedBooking request, BookingService.GroupResult result) {
+        if (result.created() != null) {
+            return new BookingRequestStatus(request.requestId(), BookingRequestStatus.CREATED, request.sequence(),
+                    result.created(), null);
+        }
+        String status = result.error() instanceof BookingConflictException
+                ? BookingRequestStatus.CONFLICT
+                : BookingRequestStatus.REJECTED;
+        return new BookingRequestStatus(request.requestId(), status, request.sequence(), null,
+                result.error().getMessage());
+    }
+
+    private int partition(Long carId) {
+        long hash = carId * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % queues.length);
+    }
+
+    private double queued() {
+        int queued = 0;
+        for (BlockingQueue<QueuedBooking> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+}
@@ -2,14 +2,30 @@ package com.example.autopark.autopark.service;
 
 import com.example.autopark.autopark.entity.*;
 import com.example.autopark.autopark.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Сервис для работы с бронированиями.
  * Предоставляет методы для получения, создания и отмены бронирований.
+ * Публикует метрики времени создания и отмены бронирований с исходом операции,
+ * а также счетчики конфликтов и отклоненных запросов.
  */
 @Service
 public class BookingService {
@@ -23,48 +39,422 @@ public class BookingService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookingAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private CarLockStripes carLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private AvailabilityEventBus availabilityEvents;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Дополнительная проверка пересечений запросом к базе данных — для работы нескольких узлов
+    @Value("${autopark.booking.verify-in-database:false}")
+    private boolean verifyInDatabase;
+
+    @Value("${autopark.booking.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    // Ограничение длины бронирования: каждый день периода занимает память в посуточном индексе занятости
+    @Value("${autopark.booking.max-days:366}")
+    private int maxDays;
+
+    private Counter rejected;
+
+    /**
+     * Регистрирует счетчик отклоненных запросов бронирования.
+     */
+    @PostConstruct
+    public void initMetrics() {
+        rejected = Counter.builder("autopark.booking.rejected")
+                .description("Число запросов бронирования, отклоненных из-за некорректных данных")
+                .register(meterRegistry);
+    }
+
     /**
      * Получает все бронирования для указанного пользователя.
      *
      * @param userId ID пользователя
-     * @return Список бронирований, связанных с пользователем
+     * @return Список DTO бронирований, связанных с пользователем
      */
-    public List<Booking> getBookingsByUser(Long userId) {
-        return bookingRepository.findByUserId(userId);  // Получение всех бронирований для пользователя
+    public List<BookingDTO> getBookingsByUser(Long userId) {
+        return bookingRepository.findDTOByUserId(userId);  // Получение всех бронирований для пользователя
+    }
+
+    /**
+     * Получает ID пользователя, которому принадлежит бронирование.
+     *
+     * @param bookingId ID бронирования
+     * @return ID пользователя или пустой Optional, если бронирование не найдено
+     */
+    public Optional<Long> getBookingUserId(Long bookingId) {
+        return bookingRepository.findUserIdById(bookingId);
     }
 
     /**
      * Получает все бронирования для указанного автомобиля.
      *
      * @param carId ID автомобиля
-     * @return Список бронирований, связанных с автомобилем
+     * @return Список DTO бронирований, связанных с автомобилем
      */
-    public List<Booking> getBookingsByCar(Long carId) {
-        return bookingRepository.findByCarId(carId);  // Получение всех бронирований для автомобиля
+    public List<BookingDTO> getBookingsByCar(Long carId) {
+        return bookingRepository.findDTOByCarId(carId);  // Получение всех бронирований для автомобиля
     }
 
     /**
      * Создает новое бронирование на основе данных DTO.
+     * Пересечение с существующими бронированиями машины проверяется по индексу занятости в памяти.
+     * Запросы к одной машине выполняются последовательно под блокировкой машины, запросы к разным машинам —
+     * параллельно. Вставка бронирования увеличивает версию машины, поэтому одновременные бронирования
+     * одной машины с разных узлов отклоняются базой данных при фиксации транзакции.
      *
      * @param bookingDTO DTO с данными для создания бронирования
-     * @throws RuntimeException Если машина или пользователь не найдены
+     * @throws BookingConflictException Если машина уже забронирована на эти даты или была одновременно
+     *                                  забронирована другим запросом
+     * @throws RuntimeException         Если период некорректен или слишком длинный, или машина или пользователь не найдены
      */
     public void createBooking(BookingDTO bookingDTO) {
-        // Поиск машины по carId
-        Car car = carRepository.findById(bookingDTO.getCarId())
-                .orElseThrow(() -> new RuntimeException("Машина не найдена"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
+        try {
+            insertBooking(bookingDTO);
+            outcome = "created";
+        } catch (BookingConflictException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        } finally {
+            sample.stop(timer("autopark.booking.create", "Время создания бронирования", outcome));
+        }
+    }
+
+    /**
+     * Проверяет и сохраняет одно бронирование.
+     *
+     * @param bookingDTO DTO с данными для создания бронирования
+     */
+    private void insertBooking(BookingDTO bookingDTO) {
+        LocalDate startDate = bookingDTO.getStartDate();
+        LocalDate endDate = bookingDTO.getEndDate();
+        if (bookingDTO.getCarId() == null || bookingDTO.getUserId() == null) {
+            throw new RuntimeException("Некорректные данные бронирования");
+        }
+        checkPeriod(startDate, endDate);
+
+        Lock lock = carLocks.forCar(bookingDTO.getCarId());
+        Booking saved;
+        lock.lock();
+        try {
+            if (!availabilityIndex.isFree(bookingDTO.getCarId(), startDate, endDate)) {
+                throw conflict("overlap", "Машина уже забронирована на выбранные даты");
+            }
+            saved = transactionTemplate.execute(status -> {
+                // Поиск машины по carId с увеличением её версии при фиксации транзакции
+                Car car = carRepository.findForBookingById(bookingDTO.getCarId())
+                        .orElseThrow(() -> new RuntimeException("Машина не найдена"));
+
+                User user = userRepository.findById(bookingDTO.getUserId())
+                        .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+
+                if (verifyInDatabase && bookingRepository.existsOverlapping(car.getId(), startDate, endDate)) {
+                    throw conflict("overlap", "Машина уже забронирована на выбранные даты");
+                }
+
+                // Создание нового бронирования
+                Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setCar(car); // Устанавливаем найденный объект Car
+                booking.setStartDate(startDate);
+                booking.setEndDate(endDate);
+                return bookingRepository.save(booking);
+            });
+            // Индекс и версии обновляются только после успешной фиксации транзакции
+            availabilityIndex.add(saved.getId(), bookingDTO.getCarId(), startDate, endDate);
+            resourceVersions.bookingsChanged(bookingDTO.getUserId());
+        } catch (OptimisticLockingFailureException e) {
+            throw conflict("concurrent", "Машина была одновременно забронирована другим запросом, повторите попытку");
+        } finally {
+            lock.unlock();
+        }
+        // Событие публикуется после снятия блокировки: рассылка подписчикам не задерживает бронирования машины
+        availabilityEvents.bookingChanged(AvailabilityEvent.BOOKING_CREATED, saved.getId(), bookingDTO.getCarId(), startDate, endDate);
+    }
+
+    /**
+     * Создает пакет бронирований в одной транзакции.
+     * Все машины и пользователи загружаются двумя запросами IN, а бронирования вставляются пакетами JDBC.
+     * Пакет принимается целиком или отклоняется целиком: при пересечении с существующими бронированиями
+     * или с другим бронированием того же пакета ни одно бронирование не создается.
+     *
+     * @param bookingDTOs Список DTO с данными для создания бронирований
+     * @return Список созданных бронирований с присвоенными ID
+     * @throws BookingConflictException Если хотя бы одно бронирование пересекается с другим
+     * @throws RuntimeException         Если пакет пуст или слишком велик, период некорректен или слишком длинный,
+     *                                  или машина или пользователь не найдены
+     */
+    public List<BookingDTO> createBookings(List<BookingDTO> bookingDTOs) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
+        try {
+            List<BookingDTO> created = insertBookings(bookingDTOs);
+            outcome = "created";
+            return created;
+        } catch (BookingConflictException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        } finally {
+            sample.stop(timer("autopark.booking.batch", "Время создания пакета бронирований", outcome));
+        }
+    }
+
+    /**
+     * Проверяет и сохраняет пакет бронирований.
+     *
+     * @param bookingDTOs Список DTO с данными для создания бронирований
+     * @return Список созданных бронирований с присвоенными ID
+     */
+    private List<BookingDTO> insertBookings(List<BookingDTO> bookingDTOs) {
+        if (bookingDTOs == null || bookingDTOs.isEmpty() || bookingDTOs.size() > maxBatchSize) {
+            throw new RuntimeException("Пакет должен содержать от 1 до " + maxBatchSize + " бронирований");
+        }
+        for (int i = 0; i < bookingDTOs.size(); i++) {
+            BookingDTO dto = bookingDTOs.get(i);
+            if (dto.getCarId() == null || dto.getUserId() == null || dto.getStartDate() == null
+                    || dto.getEndDate() == null || dto.getStartDate().isAfter(dto.getEndDate())) {
+                throw new RuntimeException("Бронирование №" + (i + 1) + ": некорректные данные");
+            }
+            if (days(dto.getStartDate(), dto.getEndDate()) > maxDays) {
+                throw new RuntimeException("Бронирование №" + (i + 1) + ": период не может быть длиннее " + maxDays + " суток");
+            }
+        }
+        Set<Long> carIds = bookingDTOs.stream().map(BookingDTO::getCarId).collect(Collectors.toSet());
+        Set<Long> userIds = bookingDTOs.stream().map(BookingDTO::getUserId).collect(Collectors.toSet());
+
+        List<Lock> locks = carLocks.forCars(carIds);
+        List<BookingDTO> created;
+        locks.forEach(Lock::lock);
+        try {
+            checkBatchConflicts(bookingDTOs);
+            List<Booking> saved = transactionTemplate.execute(status -> {
+                Map<Long, Car> cars = carRepository.findForBookingByIdIn(carIds).stream()
+                        .collect(Collectors.toMap(Car::getId, Function.identity()));
+                Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+                List<Booking> bookings = new ArrayList<>(bookingDTOs.size());
+                for (BookingDTO dto : bookingDTOs) {
+                    Car car = cars.get(dto.getCarId());
+                    User user = users.get(dto.getUserId());
+                    if (car == null) {
+                        throw new RuntimeException("Машина не найдена: " + dto.getCarId());
+                    }
+                    if (user == null) {
+                        throw new RuntimeException("Пользователь не найден: " + dto.getUserId());
+                    }
+                    if (verifyInDatabase && bookingRepository.existsOverlapping(car.getId(), dto.getStartDate(), dto.getEndDate())) {
+                        throw conflict("overlap", "Машина " + car.getId() + " уже забронирована на выбранные даты");
+                    }
+                    bookings.add(new Booking(null, user, car, dto.getStartDate(), dto.getEndDate()));
+                }
+                return bookingRepository.saveAll(bookings);
+            });
+
+            created = new ArrayList<>(saved.size());
+            for (Booking booking : saved) {
+                availabilityIndex.add(booking.getId(), booking.getCar().getId(), booking.getStartDate(), booking.getEndDate());
+                created.add(BookingDTO.from(booking));
+            }
+            userIds.forEach(resourceVersions::bookingsChanged);
+        } catch (OptimisticLockingFailureException e) {
+            throw conflict("concurrent", "Машины пакета были одновременно забронированы другим запросом, повторите попытку");
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+        publishCreated(created);
+        return created;
+    }
+
+    /**
+     * Проверяет пакет бронирований на пересечения с существующими бронированиями и между собой.
+     *
+     * @param bookingDTOs Список DTO бронирований
+     * @throws BookingConflictException Если найдено пересечение
+     */
+    private void checkBatchConflicts(List<BookingDTO> bookingDTOs) {
+        Map<Long, List<BookingDTO>> byCar = new HashMap<>();
+        for (BookingDTO dto : bookingDTOs) {
+            if (!availabilityIndex.isFree(dto.getCarId(), dto.getStartDate(), dto.getEndDate())) {
+                throw conflict("overlap", "Машина " + dto.getCarId() + " уже забронирована на выбранные даты");
+            }
+            byCar.computeIfAbsent(dto.getCarId(), id -> new ArrayList<>()).add(dto);
+        }
+        for (List<BookingDTO> carBookings : byCar.values()) {
+            carBookings.sort(Comparator.comparing(BookingDTO::getStartDate));
+            for (int i = 1; i < carBookings.size(); i++) {
+                if (!carBookings.get(i - 1).getEndDate().isBefore(carBookings.get(i).getStartDate())) {
+                    throw conflict("batch", "Бронирования машины " + carBookings.get(i).getCarId()
+                            + " внутри пакета пересекаются");
+                }
+            }
+        }
+    }
+
+    /**
+     * Результат одного запроса группы бронирований машины.
+     *
+     * @param created Созданное бронирование или null
+     * @param error   Причина отказа (BookingConflictException при конфликте) или null
+     */
+    public record GroupResult(BookingDTO created, RuntimeException error) {
+    }
 
-        User user = userRepository.findById(bookingDTO.getUserId())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+    /**
+     * Создает группу бронирований одной машины, накопленную очередью приема, одной транзакцией.
+     * Пользователи всех запросов загружаются одним запросом IN; запросы несуществующих пользователей
+     * отклоняются и в проверке пересечений не участвуют.
+     * Остальные запросы рассматриваются в порядке поступления: запрос, пересекающийся с существующим бронированием
+     * или с уже принятым запросом группы, получает конфликт, остальные вставляются одним пакетом.
+     * В отличие от createBookings, конфликт одного запроса не отменяет остальные.
+     *
+     * @param carId    ID машины
+     * @param requests Проверенные запросы бронирования этой машины в порядке поступления
+     * @return Результаты в порядке запросов
+     */
+    public List<GroupResult> createCarGroup(Long carId, List<BookingDTO> requests) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        GroupResult[] results = new GroupResult[requests.size()];
+        String outcome = "created";
+        Lock lock = carLocks.forCar(carId);
+        lock.lock();
+        try {
+            Set<Long> userIds = requests.stream().map(BookingDTO::getUserId).collect(Collectors.toSet());
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            // Разрешение конфликтов в памяти: первым поступившим запросам отдается приоритет
+            List<Integer> accepted = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                BookingDTO dto = requests.get(i);
+                if (!users.containsKey(dto.getUserId())) {
+                    results[i] = new GroupResult(null, new RuntimeException("Пользователь не найден: " + dto.getUserId()));
+                } else if (!availabilityIndex.isFree(carId, dto.getStartDate(), dto.getEndDate())
+                        || overlapsAccepted(requests, accepted, dto)) {
+                    results[i] = new GroupResult(null, conflict("overlap", "Машина уже забронирована на выбранные даты"));
+                } else {
+                    accepted.add(i);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                insertGroup(carId, requests, users, accepted, results);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            outcome = "conflict";
+            fillMissing(results, conflict("concurrent", "Машина была одновременно забронирована другим запросом, повторите попытку"));
+        } catch (RuntimeException e) {
+            outcome = "rejected";
+            fillMissing(results, e);
+        } finally {
+            lock.unlock();
+            sample.stop(timer("autopark.booking.group", "Время создания группы бронирований машины", outcome));
+        }
+        List<GroupResult> groupResults = Arrays.asList(results);
+        publishCreated(groupResults.stream().map(GroupResult::created).filter(Objects::nonNull).toList());
+        return groupResults;
+    }
 
-        // Создание нового бронирования
-        Booking booking = new Booking();
-        booking.setUser(user);
-        booking.setCar(car); // Устанавливаем найденный объект Car
-        booking.setStartDate(bookingDTO.getStartDate());
-        booking.setEndDate(bookingDTO.getEndDate());
+    /**
+     * Вставляет принятые запросы группы одной транзакцией и обновляет индекс занятости после фиксации.
+     * Вызывается под блокировкой машины; события о созданных бронированиях публикует createCarGroup после ее снятия.
+     */
+    private void insertGroup(Long carId, List<BookingDTO> requests, Map<Long, User> users, List<Integer> accepted,
+                             GroupResult[] results) {
+        List<Booking> saved = transactionTemplate.execute(status -> {
+            // Поиск машины с увеличением её версии при фиксации транзакции
+            Car car = carRepository.findForBookingById(carId)
+                    .orElseThrow(() -> new RuntimeException("Машина не найдена"));
 
-        bookingRepository.save(booking);
+            List<Booking> bookings = new ArrayList<>(accepted.size());
+            for (Iterator<Integer> it = accepted.iterator(); it.hasNext(); ) {
+                int i = it.next();
+                BookingDTO dto = requests.get(i);
+                if (verifyInDatabase && bookingRepository.existsOverlapping(carId, dto.getStartDate(), dto.getEndDate())) {
+                    results[i] = new GroupResult(null, conflict("overlap", "Машина уже забронирована на выбранные даты"));
+                    it.remove();
+                } else {
+                    bookings.add(new Booking(null, users.get(dto.getUserId()), car, dto.getStartDate(), dto.getEndDate()));
+                }
+            }
+            return bookingRepository.saveAll(bookings);
+        });
+        for (int k = 0; k < saved.size(); k++) {
+            Booking booking = saved.get(k);
+            availabilityIndex.add(booking.getId(), carId, booking.getStartDate(), booking.getEndDate());
+            results[accepted.get(k)] = new GroupResult(BookingDTO.from(booking), null);
+        }
+        saved.stream().map(booking -> booking.getUser().getId()).distinct().forEach(resourceVersions::bookingsChanged);
+    }
+
+    /**
+     * Проверяет период бронирования: даты заданы, начало не позже окончания, длина не больше допустимой.
+     *
+     * @param startDate Дата начала бронирования
+     * @param endDate   Дата окончания бронирования
+     * @throws RuntimeException Если период некорректен или слишком длинный
+     */
+    public void checkPeriod(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new RuntimeException("Некорректный период бронирования");
+        }
+        if (days(startDate, endDate) > maxDays) {
+            throw new RuntimeException("Период бронирования не может быть длиннее " + maxDays + " суток");
+        }
+    }
+
+    private static long days(LocalDate startDate, LocalDate endDate) {
+        return ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    }
+
+    /**
+     * Публикует события о созданных бронированиях. Вызывается после снятия блокировок машин.
+     */
+    private void publishCreated(List<BookingDTO> created) {
+        for (BookingDTO booking : created) {
+            availabilityEvents.bookingChanged(AvailabilityEvent.BOOKING_CREATED, booking.getId(), booking.getCarId(),
+                    booking.getStartDate(), booking.getEndDate());
+        }
+    }
+
+    private static boolean overlapsAccepted(List<BookingDTO> requests, List<Integer> accepted, BookingDTO dto) {
+        for (int i : accepted) {
+            BookingDTO other = requests.get(i);
+            if (!other.getStartDate().isAfter(dto.getEndDate()) && !dto.getStartDate().isAfter(other.getEndDate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void fillMissing(GroupResult[] results, RuntimeException error) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new GroupResult(null, error);
+            }
+        }
     }
 
     /**
@@ -73,15 +463,91 @@ public class BookingService {
      * @param bookingId ID бронирования
      */
     public void cancelBooking(Long bookingId) {
-        bookingRepository.deleteById(bookingId);  // Отмена бронирования
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "not_found";
+        try {
+            Optional<Booking> booking = bookingRepository.findById(bookingId);
+            if (booking.isPresent()) {
+                bookingRepository.delete(booking.get());  // Отмена бронирования
+                availabilityIndex.remove(bookingId);  // Освобождаем даты в индексе занятости
+                resourceVersions.bookingsChanged(booking.get().getUser().getId());
+                availabilityEvents.bookingChanged(AvailabilityEvent.BOOKING_CANCELLED, bookingId, booking.get().getCar().getId(),
+                        booking.get().getStartDate(), booking.get().getEndDate());
+                outcome = "cancelled";
+            }
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(timer("autopark.booking.cancel", "Время отмены бронирования", outcome));
+        }
     }
 
     /**
-     * Получает все бронирования из базы данных.
+     * Учитывает конфликт бронирования в метриках и создает исключение для него.
+     *
+     * @param reason  Причина конфликта: overlap — пересечение с существующим бронированием,
+     *                concurrent — одновременное бронирование другим запросом, batch — пересечение внутри пакета
+     * @param message Сообщение об ошибке
+     * @return Исключение конфликта бронирования
+     */
+    private BookingConflictException conflict(String reason, String message) {
+        meterRegistry.counter("autopark.booking.conflicts", "reason", reason).increment();
+        return new BookingConflictException(message);
+    }
+
+    /**
+     * Возвращает таймер операции с бронированиями для указанного исхода.
+     * Реестр хранит таймеры по имени и тегам, поэтому повторный вызов возвращает тот же таймер.
+     *
+     * @param name        Имя таймера
+     * @param description Описание таймера
+     * @param outcome     Исход операции
+     * @return Таймер
+     */
+    private Timer timer(String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Получает все бронирования из базы данных вместе с пользователями и машинами.
      *
      * @return Список всех бронирований
      */
     public List<Booking> findAll() {
         return bookingRepository.findAll();
     }
+
+    /**
+     * Получает все бронирования в виде DTO одним запросом, без загрузки пользователей и машин.
+     *
+     * @return Список DTO всех бронирований
+     */
+    public List<BookingDTO> findAllAsDTO() {
+        return bookingRepository.findAllAsDTO();
+    }
+
+    /**
+     * Получает страницу бронирований в виде DTO с ID больше указанного.
+     *
+     * @param afterId ID последнего бронирования предыдущей страницы
+     * @param limit   Размер страницы
+     * @return Список DTO бронирований страницы, упорядоченный по ID
+     */
+    public List<BookingDTO> findPage(long afterId, int limit) {
+        return bookingRepository.findDTOPage(afterId, Limit.of(limit));
+    }
+
+    /**
+     * Читает все бронирования в виде DTO потоком.
+     * Поток должен использоваться внутри транзакции и закрываться после чтения.
+     *
+     * @return Поток DTO бронирований, упорядоченный по ID
+     */
+    public Stream<BookingDTO> streamAllAsDTO() {
+        return bookingRepository.streamAllAsDTO();
+    }
 }
\ No newline at end of file
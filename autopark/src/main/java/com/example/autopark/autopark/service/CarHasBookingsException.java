@@ -0,0 +1,16 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое при попытке удалить машину, у которой есть бронирования.
+ */
+public class CarHasBookingsException extends RuntimeException {
+
+    /**
+     * Конструктор класса CarHasBookingsException.
+     *
+     * @param carId ID машины
+     */
+    public CarHasBookingsException(Long carId) {
+        super("Нельзя удалить машину " + carId + ": у нее есть бронирования");
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое, когда контрольную точку импорта с тем же ID
+ * одновременно сдвинул другой импорт.
+ */
+public class CarImportConflictException extends RuntimeException {
+
+    /**
+     * Конструктор класса CarImportConflictException.
+     *
+     * @param importId ID импорта
+     */
+    public CarImportConflictException(String importId) {
+        super("Импорт " + importId + " уже выполняется другим запросом");
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое, когда файл импорта машин или его строка не прошли проверку:
+ * неподдерживаемый формат, некорректный ID импорта, пустой файл, заголовок CSV без обязательной колонки
+ * или некорректное поле строки.
+ */
+public class CarImportException extends RuntimeException {
+
+    /**
+     * Конструктор класса CarImportException.
+     *
+     * @param message Сообщение об ошибке
+     */
+    public CarImportException(String message) {
+        super(message);
+    }
+}
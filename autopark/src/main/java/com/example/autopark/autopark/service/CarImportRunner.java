@@ -0,0 +1,73 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.CarImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Импорт машин из файла при запуске из командной строки, без HTTP-сервера:
+ * <pre>
+ * java -jar autopark.jar --spring.main.web-application-type=none \
+ *      --autopark.import.file=fleet.csv --autopark.import.id=fleet-2025
+ * </pre>
+ * Формат определяется по расширению файла (.csv, .jsonl или .ndjson). После импорта точка входа приложения
+ * завершает процесс с кодом 0, если все строки добавлены, или 1, если часть строк отклонена;
+ * повторный запуск с тем же ID импорта продолжает импорт с первой незафиксированной строки.
+ */
+@Component
+@ConditionalOnProperty("autopark.import.file")
+public class CarImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(CarImportRunner.class);
+
+    private final CarImportService carImportService;
+    private final Path file;
+    private final String importId;
+    private volatile int exitCode;
+
+    /**
+     * Конструктор класса CarImportRunner.
+     *
+     * @param carImportService Сервис пакетного импорта машин
+     * @param file             Путь к файлу импорта
+     * @param importId         ID импорта (необязательно); по умолчанию — имя файла
+     */
+    public CarImportRunner(CarImportService carImportService,
+                           @Value("${autopark.import.file}") Path file,
+                           @Value("${autopark.import.id:}") String importId) {
+        this.carImportService = carImportService;
+        this.file = file;
+        String fileName = file.getFileName().toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        this.importId = importId.isBlank() ? fileName.substring(0, Math.min(64, fileName.length())) : importId;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        CarImportReport report;
+        try (InputStream in = Files.newInputStream(file)) {
+            report = carImportService.importCars(in, CarImportService.Format.of(file.getFileName().toString()), importId);
+        }
+        for (CarImportReport.RejectedRow rejected : report.getRejectedRows()) {
+            log.warn("Строка {} отклонена: {}", rejected.getRow(), rejected.getReason());
+        }
+        log.info("Импорт {} завершен: пропущено {}, прочитано {}, добавлено {}, отклонено {}, пакетов {}, {} строк/с",
+                report.getImportId(), report.getSkippedRows(), report.getRowsRead(), report.getImported(),
+                report.getRejected(), report.getBatches(), Math.round(report.getRowsPerSecond()));
+        exitCode = report.getRejected() == 0 ? 0 : 1;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
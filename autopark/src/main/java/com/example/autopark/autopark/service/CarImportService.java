@@ -0,0 +1,378 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Сервис пакетного импорта машин из CSV или JSON Lines.
+ * Файл читается потоком построчно, строки проверяются по мере чтения и вставляются пакетами JDBC
+ * заданного размера. Каждый пакет фиксируется в отдельной транзакции вместе с контрольной точкой,
+ * поэтому после сбоя повторный импорт с тем же ID продолжается с первой незафиксированной строки.
+ * Контрольная точка сдвигается только с того значения, которое импорт зафиксировал последним, поэтому
+ * из двух одновременных импортов с одним ID второй получает CarImportConflictException, а его пакет откатывается.
+ */
+@Service
+public class CarImportService {
+
+    /**
+     * Формат файла импорта.
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        /**
+         * Определяет формат по типу содержимого или расширению файла.
+         *
+         * @param contentTypeOrFileName Тип содержимого запроса или имя файла
+         * @return Формат файла
+         * @throws CarImportException Если формат не поддерживается
+         */
+        public static Format of(String contentTypeOrFileName) {
+            String value = contentTypeOrFileName == null ? "" : contentTypeOrFileName.toLowerCase(Locale.ROOT);
+            if (value.contains("csv")) {
+                return CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json-lines")) {
+                return JSON_LINES;
+            }
+            throw new CarImportException("Поддерживаются только CSV и JSON Lines");
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(CarImportService.class);
+
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final List<String> REQUIRED_COLUMNS = List.of("brand", "model", "year", "pricePerDay");
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int FIRST_CAR_YEAR = 1886;
+
+    private static final String INSERT_CAR =
+            "insert into cars (brand, model, year, price_per_day, available, version) values (?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_CHECKPOINT = "update car_import_checkpoints "
+            + "set rows_read = ?, imported = imported + ?, rejected = rejected + ?, updated_at = ? "
+            + "where import_id = ? and rows_read = ?";
+    private static final String INSERT_CHECKPOINT = "insert into car_import_checkpoints "
+            + "(rows_read, imported, rejected, updated_at, import_id) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final CarService carService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedRejects;
+
+    /**
+     * Конструктор класса CarImportService.
+     *
+     * @param jdbcTemplate       JdbcTemplate приложения
+     * @param transactionManager Менеджер транзакций для фиксации каждого пакета
+     * @param carService         Сервис машин для обновления индекса занятости и кэшей после фиксации пакета
+     * @param objectMapper       ObjectMapper приложения для разбора JSON Lines
+     * @param batchSize          Число машин в одном пакете вставки
+     * @param maxReportedRejects Сколько отклоненных строк перечислять в отчете
+     */
+    public CarImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            CarService carService, ObjectMapper objectMapper,
+                            @Value("${autopark.import.batch-size:1000}") int batchSize,
+                            @Value("${autopark.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.carService = carService;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedRejects = maxReportedRejects;
+    }
+
+    /**
+     * Импортирует машины из потока.
+     * В CSV первая строка — заголовок с колонками brand, model, year, pricePerDay и необязательной available;
+     * в JSON Lines каждая строка — объект с теми же полями. Пустые строки пропускаются.
+     *
+     * @param in       Поток файла в кодировке UTF-8
+     * @param format   Формат файла
+     * @param importId ID импорта для продолжения после сбоя; если не указан, создается новый
+     * @return Отчет об импорте
+     * @throws IOException                Если поток не удалось прочитать
+     * @throws CarImportException         Если ID импорта или заголовок CSV некорректны
+     * @throws CarImportConflictException Если одновременно выполняется импорт с тем же ID
+     */
+    public CarImportReport importCars(InputStream in, Format format, String importId) throws IOException {
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        if (!IMPORT_ID.matcher(id).matches()) {
+            throw new CarImportException("Некорректный ID импорта");
+        }
+        long committedRows = committedRows(id);
+        long begin = System.nanoTime();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        Map<String, Integer> columns = format == Format.CSV ? readHeader(reader) : null;
+
+        List<Car> batch = new ArrayList<>(batchSize);
+        List<CarImportReport.RejectedRow> rejectedRows = new ArrayList<>();
+        long row = 0;
+        long imported = 0;
+        long rejected = 0;
+        long batchRejected = 0;
+        long lastCommittedRow = committedRows;
+        int batches = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            if (row <= committedRows) {
+                continue; // Строка зафиксирована предыдущим запуском
+            }
+            try {
+                batch.add(format == Format.CSV ? parseCsv(line, columns) : parseJson(line));
+            } catch (CarImportException e) {
+                rejected++;
+                batchRejected++;
+                if (rejectedRows.size() < maxReportedRejects) {
+                    rejectedRows.add(new CarImportReport.RejectedRow(row, e.getMessage()));
+                }
+            }
+            if (batch.size() == batchSize) {
+                commit(id, batch, lastCommittedRow, row, batchRejected);
+                imported += batch.size();
+                batches++;
+                lastCommittedRow = row;
+                batch = new ArrayList<>(batchSize);
+                batchRejected = 0;
+            }
+        }
+        if (row > lastCommittedRow) {
+            commit(id, batch, lastCommittedRow, row, batchRejected);
+            imported += batch.size();
+            batches++;
+        }
+
+        long elapsedNanos = System.nanoTime() - begin;
+        long rowsRead = Math.max(0, row - committedRows);
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : rowsRead / (elapsedNanos / 1e9);
+        log.info("Импорт машин {}: прочитано {} строк, добавлено {}, отклонено {} за {} мс ({} строк/с)",
+                id, rowsRead, imported, rejected, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new CarImportReport(id, Math.min(committedRows, row), rowsRead, imported, rejected, batches,
+                elapsedNanos / 1_000_000, rowsPerSecond, rejectedRows);
+    }
+
+    /**
+     * Вставляет пакет машин и сдвигает контрольную точку в одной транзакции,
+     * затем добавляет машины в индекс занятости и сбрасывает кэши каталога.
+     * Если контрольная точка уже не равна previousRows (или создана другим импортом), пакет откатывается.
+     */
+    private void commit(String importId, List<Car> batch, long previousRows, long rowsRead, long rejected) {
+        batchTransaction.executeWithoutResult(status -> {
+            insert(batch);
+            Timestamp now = Timestamp.from(Instant.now());
+            if (jdbcTemplate.update(UPDATE_CHECKPOINT, rowsRead, batch.size(), rejected, now, importId, previousRows) == 1) {
+                return;
+            }
+            if (previousRows > 0) {
+                throw new CarImportConflictException(importId);
+            }
+            try {
+                jdbcTemplate.update(INSERT_CHECKPOINT, rowsRead, batch.size(), rejected, now, importId);
+            } catch (DuplicateKeyException e) {
+                throw new CarImportConflictException(importId);
+            }
+        });
+        carService.carsImported(batch);
+    }
+
+    /**
+     * Вставляет пакет одним обращением к базе данных и присваивает машинам сгенерированные ID.
+     */
+    private void insert(List<Car> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_CAR, Statement.RETURN_GENERATED_KEYS)) {
+                for (Car car : batch) {
+                    insert.setString(1, car.getBrand());
+                    insert.setString(2, car.getModel());
+                    insert.setInt(3, car.getYear());
+                    insert.setDouble(4, car.getPricePerDay());
+                    insert.setBoolean(5, car.isAvailable());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < batch.size()) {
+                        batch.get(i++).setId(keys.getLong(1));
+                    }
+                    if (i != batch.size()) {
+                        throw new IllegalStateException("База данных вернула " + i + " ID для " + batch.size() + " машин");
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private long committedRows(String importId) {
+        List<Long> rows = jdbcTemplate.queryForList(
+                "select rows_read from car_import_checkpoints where import_id = ?", Long.class, importId);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new CarImportException("Файл импорта пуст");
+        }
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new CarImportException("В заголовке CSV нет колонки " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Car parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        return validate(
+                field(fields, columns.get("brand")),
+                field(fields, columns.get("model")),
+                field(fields, columns.get("year")),
+                field(fields, columns.get("pricePerDay")),
+                field(fields, columns.get("available")));
+    }
+
+    private Car parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new CarImportException("Некорректный JSON");
+        }
+        if (!node.isObject()) {
+            throw new CarImportException("Строка должна быть JSON-объектом");
+        }
+        return validate(text(node, "brand"), text(node, "model"), text(node, "year"),
+                text(node, "pricePerDay"), text(node, "available"));
+    }
+
+    /**
+     * Проверяет поля строки и создает машину. По умолчанию машина доступна для бронирования.
+     */
+    private static Car validate(String brand, String model, String year, String pricePerDay, String available) {
+        if (brand == null || brand.isBlank() || brand.length() > MAX_TEXT_LENGTH) {
+            throw new CarImportException("Некорректная марка");
+        }
+        if (model == null || model.isBlank() || model.length() > MAX_TEXT_LENGTH) {
+            throw new CarImportException("Некорректная модель");
+        }
+        int parsedYear;
+        double parsedPrice;
+        try {
+            parsedYear = Integer.parseInt(year.trim());
+        } catch (RuntimeException e) {
+            throw new CarImportException("Некорректный год выпуска");
+        }
+        if (parsedYear < FIRST_CAR_YEAR || parsedYear > LocalDate.now().getYear() + 1) {
+            throw new CarImportException("Некорректный год выпуска");
+        }
+        try {
+            parsedPrice = Double.parseDouble(pricePerDay.trim());
+        } catch (RuntimeException e) {
+            throw new CarImportException("Некорректная цена за сутки");
+        }
+        if (!(parsedPrice >= 0) || Double.isInfinite(parsedPrice)) {
+            throw new CarImportException("Некорректная цена за сутки");
+        }
+        boolean parsedAvailable = true;
+        if (available != null && !available.isBlank()) {
+            String value = available.trim().toLowerCase(Locale.ROOT);
+            if (!value.equals("true") && !value.equals("false")) {
+                throw new CarImportException("Некорректное значение available");
+            }
+            parsedAvailable = value.equals("true");
+        }
+        return new Car(null, brand.trim(), model.trim(), parsedYear, parsedPrice, parsedAvailable, 0);
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Разбивает строку CSV на поля по RFC 4180: поля в кавычках могут содержать запятые и удвоенные кавычки.
+     * Переводы строк внутри полей не поддерживаются.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new CarImportException("Незакрытая кавычка");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.autopark.autopark.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, распределенных по ID машин (lock striping).
+ * Операции с одной машиной выполняются последовательно, а операции с разными машинами
+ * почти всегда попадают в разные блокировки и выполняются параллельно.
+ */
+@Component
+public class CarLockStripes {
+
+    private final Lock[] locks;
+    private final int mask;
+
+    /**
+     * Конструктор класса CarLockStripes.
+     *
+     * @param stripes Количество блокировок, округляется вверх до степени двойки;
+     *                одна блокировка выполняет все операции с машинами последовательно
+     */
+    public CarLockStripes(@Value("${autopark.booking.lock-stripes:1024}") int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Возвращает блокировку, отвечающую за указанную машину.
+     *
+     * @param carId ID машины
+     * @return Блокировка машины
+     */
+    public Lock forCar(Long carId) {
+        return locks[stripe(carId)];
+    }
+
+    /**
+     * Возвращает блокировки для набора машин без повторов и в порядке номеров,
+     * чтобы одновременный захват нескольких блокировок не приводил к взаимной блокировке.
+     *
+     * @param carIds ID машин
+     * @return Упорядоченный список блокировок
+     */
+    public List<Lock> forCars(Collection<Long> carIds) {
+        return carIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> locks[stripe])
+                .toList();
+    }
+
+    /**
+     * Вычисляет номер блокировки для машины, перемешивая биты ID,
+     * чтобы последовательные ID равномерно распределялись по блокировкам.
+     *
+     * @param carId ID машины
+     * @return Номер блокировки
+     */
+    private int stripe(Long carId) {
+        long hash = carId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.repository.CarRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Посуточный индекс занятости автопарка в памяти.
+ * Каждой машине назначается номер слота, а для каждого дня хранится битовая маска занятых слотов.
+ * Поиск свободных на период машин сводится к объединению масок нужных дней,
+ * поэтому не требует ни одного запроса к базе данных, сколько бы машин ни было в автопарке.
+ */
+@Service
+public class CarOccupancyIndex {
+
+    private final CarRepository carRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Номер слота каждой машины
+    private final Map<Long, Integer> slotByCarId = new HashMap<>();
+    // Освободившиеся после удаления машин слоты
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Снимки машин по номеру слота
+    private Car[] cars = new Car[64];
+    // Цены за сутки по номеру слота — для расчета стоимости без обращения к объектам машин
+    private double[] prices = new double[64];
+    private int slotCount;
+    // Слоты машин, которые можно бронировать (флаг available)
+    private final BitSet bookable = new BitSet();
+    // Занятые слоты по дням, ключ — номер дня (LocalDate.toEpochDay)
+    private final Map<Long, BitSet> occupiedByDay = new HashMap<>();
+
+    /**
+     * Конструктор класса CarOccupancyIndex.
+     *
+     * @param carRepository Репозиторий для загрузки автопарка
+     */
+    public CarOccupancyIndex(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Загружает все машины в индекс при старте приложения.
+     * Бронирования добавляет BookingAvailabilityIndex при своей загрузке.
+     */
+    @PostConstruct
+    public void load() {
+        carRepository.findAll().forEach(this::putCar);
+    }
+
+    /**
+     * Добавляет машину в индекс или обновляет её снимок.
+     *
+     * @param car Сохраненная машина
+     */
+    public void putCar(Car car) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotByCarId.computeIfAbsent(car.getId(), id -> allocateSlot());
+            cars[slot] = car;
+            prices[slot] = car.getPricePerDay();
+            bookable.set(slot, car.isAvailable());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет машину из индекса и освобождает её слот.
+     *
+     * @param carId ID машины
+     */
+    public void removeCar(Long carId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByCarId.remove(carId);
+            if (slot == null) {
+                return;
+            }
+            cars[slot] = null;
+            prices[slot] = 0;
+            bookable.clear(slot);
+            occupiedByDay.values().forEach(day -> day.clear(slot));
+            freeSlots.push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Отмечает машину занятой на все дни периода.
+     *
+     * @param carId     ID машины
+     * @param startDate Дата начала периода
+     * @param endDate   Дата окончания периода
+     */
+    public void occupy(Long carId, LocalDate startDate, LocalDate endDate) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByCarId.get(carId);
+            if (slot == null) {
+                return;
+            }
+            for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+                occupiedByDay.computeIfAbsent(day, d -> new BitSet()).set(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Отмечает машину свободной на все дни периода.
+     *
+     * @param carId     ID машины
+     * @param startDate Дата начала периода
+     * @param endDate   Дата окончания периода
+     */
+    public void release(Long carId, LocalDate startDate, LocalDate endDate) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByCarId.get(carId);
+            if (slot == null) {
+                return;
+            }
+            for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+                BitSet occupied = occupiedByDay.get(day);
+                if (occupied != null) {
+                    occupied.clear(slot);
+                    if (occupied.isEmpty()) {
+                        occupiedByDay.remove(day);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит машины, свободные на весь указанный период.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода
+     * @return Список машин, доступных для бронирования на каждый день периода
+     */
+    public List<Car> findFree(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            BitSet free = freeSlots(from, to);
+            List<Car> result = new ArrayList<>(free.cardinality());
+            for (int slot = free.nextSetBit(0); slot >= 0; slot = free.nextSetBit(slot + 1)) {
+                result.add(cars[slot]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Снимок машин, свободных на период, с ценами за сутки в виде массива примитивов.
+     * Массивы упакованы: i-й элемент cars соответствует i-му элементу pricesPerDay.
+     *
+     * @param cars         Свободные машины
+     * @param pricesPerDay Цены за сутки свободных машин
+     */
+    public record FreeCars(Car[] cars, double[] pricesPerDay) {
+    }
+
+    /**
+     * Находит машины, свободные на весь указанный период, вместе с их ценами за сутки.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода
+     * @return Упакованные массивы свободных машин и их цен
+     */
+    public FreeCars findFreeWithPrices(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            BitSet free = freeSlots(from, to);
+            int count = free.cardinality();
+            Car[] freeCars = new Car[count];
+            double[] freePrices = new double[count];
+            int i = 0;
+            for (int slot = free.nextSetBit(0); slot >= 0; slot = free.nextSetBit(slot + 1), i++) {
+                freeCars[i] = cars[slot];
+                freePrices[i] = prices[slot];
+            }
+            return new FreeCars(freeCars, freePrices);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Занятость автопарка за период.
+     * Массивы cars и occupiedDaysByCar упакованы: i-й элемент одного соответствует i-му элементу другого.
+     *
+     * @param cars              Все машины автопарка
+     * @param occupiedDaysByCar Число занятых суток каждой машины за период
+     * @param occupiedCarsByDay Число занятых машин в каждый день периода, начиная с первого
+     */
+    public record Occupancy(Car[] cars, int[] occupiedDaysByCar, int[] occupiedCarsByDay) {
+    }
+
+    /**
+     * Подсчитывает занятость каждой машины и каждого дня за период по маскам занятых дней.
+     * Время подсчета зависит от длины периода и размера автопарка, но не от числа бронирований в истории.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода
+     * @return Занятость за период
+     */
+    public Occupancy occupancy(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            int[] daysBySlot = new int[slotCount];
+            int[] carsByDay = new int[(int) (to.toEpochDay() - from.toEpochDay() + 1)];
+            for (int i = 0; i < carsByDay.length; i++) {
+                BitSet occupied = occupiedByDay.get(from.toEpochDay() + i);
+                if (occupied == null) {
+                    continue;
+                }
+                carsByDay[i] = occupied.cardinality();
+                for (int slot = occupied.nextSetBit(0); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+                    daysBySlot[slot]++;
+                }
+            }
+            int count = slotByCarId.size();
+            Car[] fleet = new Car[count];
+            int[] daysByCar = new int[count];
+            int i = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (cars[slot] != null) {
+                    fleet[i] = cars[slot];
+                    daysByCar[i] = daysBySlot[slot];
+                    i++;
+                }
+            }
+            return new Occupancy(fleet, daysByCar, carsByDay);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вычисляет маску слотов, свободных на весь период. Вызывается под блокировкой чтения.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода
+     * @return Маска свободных слотов
+     */
+    private BitSet freeSlots(LocalDate from, LocalDate to) {
+        BitSet free = (BitSet) bookable.clone();
+        for (long day = from.toEpochDay(); day <= to.toEpochDay() && !free.isEmpty(); day++) {
+            BitSet occupied = occupiedByDay.get(day);
+            if (occupied != null) {
+                free.andNot(occupied);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Выделяет слот для новой машины, повторно используя слоты удаленных машин.
+     *
+     * @return Номер слота
+     */
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == cars.length) {
+            cars = Arrays.copyOf(cars, cars.length * 2);
+            prices = Arrays.copyOf(prices, prices.length * 2);
+        }
+        return slotCount++;
+    }
+}
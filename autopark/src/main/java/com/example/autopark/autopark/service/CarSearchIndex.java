@@ -0,0 +1,456 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarSearchResult;
+import com.example.autopark.autopark.repository.CarRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс автопарка в памяти для поиска машин с фасетами.
+ * Каждой машине назначается номер слота; для каждой марки, модели и года хранится битовая маска слотов,
+ * а цены лежат в отсортированном массиве примитивов, по которому диапазон цен находится двоичным поиском.
+ * Фильтр сводится к пересечению масок, а фасет считается по машинам, подходящим под все остальные фильтры,
+ * поэтому поиск не обращается к базе данных.
+ */
+@Service
+public class CarSearchIndex {
+
+    /**
+     * Условия поиска. Пустые списки и null означают отсутствие фильтра; внутри марок и моделей условия
+     * объединяются через ИЛИ, между разными полями — через И. Границы диапазонов включаются.
+     *
+     * @param brands    Марки
+     * @param models    Модели
+     * @param yearFrom  Минимальный год выпуска
+     * @param yearTo    Максимальный год выпуска
+     * @param priceFrom Минимальная цена за сутки
+     * @param priceTo   Максимальная цена за сутки
+     * @param available Только доступные (true) или только недоступные (false) для бронирования машины
+     * @param limit     Сколько самых дешевых машин вернуть
+     */
+    public record Query(Collection<String> brands, Collection<String> models, Integer yearFrom, Integer yearTo,
+                        Double priceFrom, Double priceTo, Boolean available, int limit) {
+    }
+
+    private final CarRepository carRepository;
+    private final double priceBucket;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Номер слота каждой машины
+    private final Map<Long, Integer> slotByCarId = new HashMap<>();
+    // Освободившиеся после удаления машин слоты
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Снимки машин по номеру слота
+    private Car[] cars = new Car[64];
+    private int slotCount;
+    // Занятые слоты
+    private final BitSet live = new BitSet();
+    // Слоты машин, которые можно бронировать (флаг available)
+    private final BitSet available = new BitSet();
+    // Маски слотов по значениям полей
+    private final Map<String, BitSet> byBrand = new HashMap<>();
+    private final Map<String, BitSet> byModel = new HashMap<>();
+    private final TreeMap<Integer, BitSet> byYear = new TreeMap<>();
+    // Номера значений полей по слоту — для подсчета фасетов по массивам счетчиков без сравнения строк
+    private final Map<String, Integer> brandIds = new HashMap<>();
+    private final List<String> brandNames = new ArrayList<>();
+    private final Map<String, Integer> modelIds = new HashMap<>();
+    private final List<String> modelNames = new ArrayList<>();
+    private final Map<Integer, Integer> yearIds = new HashMap<>();
+    private final List<Integer> yearValues = new ArrayList<>();
+    private final Map<Long, Integer> priceBucketIds = new HashMap<>();
+    private final List<Long> priceBuckets = new ArrayList<>();
+    private int[] brandBySlot = new int[64];
+    private int[] modelBySlot = new int[64];
+    private int[] yearBySlot = new int[64];
+    private int[] priceBucketBySlot = new int[64];
+    // Цены по возрастанию и слоты в том же порядке; перестраиваются при первом поиске после изменения цен
+    private double[] sortedPrices = new double[0];
+    private int[] slotsByPrice = new int[0];
+    private boolean pricesDirty;
+
+    /**
+     * Конструктор класса CarSearchIndex.
+     *
+     * @param carRepository Репозиторий для загрузки автопарка
+     * @param priceBucket   Ширина интервала цен в фасете цен
+     */
+    public CarSearchIndex(CarRepository carRepository, @Value("${autopark.search.price-bucket:50}") double priceBucket) {
+        this.carRepository = carRepository;
+        this.priceBucket = priceBucket;
+    }
+
+    /**
+     * Загружает все машины в индекс при старте приложения.
+     */
+    @PostConstruct
+    public void load() {
+        carRepository.findAll().forEach(this::putCar);
+    }
+
+    /**
+     * Добавляет машину в индекс или обновляет её снимок.
+     *
+     * @param car Сохраненная машина
+     */
+    public void putCar(Car car) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotByCarId.get(car.getId());
+            if (existing != null) {
+                unindex(existing);
+            }
+            int slot = existing != null ? existing : allocateSlot();
+            slotByCarId.put(car.getId(), slot);
+            cars[slot] = car;
+            live.set(slot);
+            available.set(slot, car.isAvailable());
+            byBrand.computeIfAbsent(String.valueOf(car.getBrand()), term -> new BitSet()).set(slot);
+            byModel.computeIfAbsent(String.valueOf(car.getModel()), term -> new BitSet()).set(slot);
+            byYear.computeIfAbsent(car.getYear(), term -> new BitSet()).set(slot);
+            brandBySlot[slot] = termId(brandIds, brandNames, String.valueOf(car.getBrand()));
+            modelBySlot[slot] = termId(modelIds, modelNames, String.valueOf(car.getModel()));
+            yearBySlot[slot] = termId(yearIds, yearValues, car.getYear());
+            priceBucketBySlot[slot] = termId(priceBucketIds, priceBuckets,
+                    (long) Math.floor(car.getPricePerDay() / priceBucket));
+            pricesDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет машину из индекса и освобождает её слот.
+     *
+     * @param carId ID машины
+     */
+    public void removeCar(Long carId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByCarId.remove(carId);
+            if (slot == null) {
+                return;
+            }
+            unindex(slot);
+            cars[slot] = null;
+            freeSlots.push(slot);
+            pricesDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит машины по условиям и считает фасеты: число подходящих машин для каждой марки, модели,
+     * года и интервала цен при всех остальных фильтрах. Машины возвращаются по возрастанию цены.
+     *
+     * @param query Условия поиска
+     * @return Найденные машины, их общее число и фасеты
+     */
+    public CarSearchResult search(Query query) {
+        lockSortedPrices();
+        try {
+            BitSet brandMask = terms(byBrand, query.brands());
+            BitSet modelMask = terms(byModel, query.models());
+            BitSet yearMask = years(query.yearFrom(), query.yearTo());
+            BitSet priceMask = prices(query.priceFrom(), query.priceTo());
+            BitSet base = (BitSet) live.clone();
+            if (query.available() != null) {
+                if (query.available()) {
+                    base.and(available);
+                } else {
+                    base.andNot(available);
+                }
+            }
+
+            // Один проход по словам масок: слот входит в фасет поля, если подходит под все остальные фильтры
+            long[] baseWords = base.toLongArray();
+            long[] brandWords = words(brandMask);
+            long[] modelWords = words(modelMask);
+            long[] yearWords = words(yearMask);
+            long[] priceWords = words(priceMask);
+            long[] matches = new long[baseWords.length];
+            int[] brandCounts = new int[brandNames.size()];
+            int[] modelCounts = new int[modelNames.size()];
+            int[] yearCounts = new int[yearValues.size()];
+            int[] priceCounts = new int[priceBuckets.size()];
+            int total = 0;
+            for (int w = 0; w < baseWords.length; w++) {
+                long all = baseWords[w];
+                if (all == 0) {
+                    continue;
+                }
+                long brand = word(brandWords, w);
+                long model = word(modelWords, w);
+                long year = word(yearWords, w);
+                long price = word(priceWords, w);
+                long forBrand = all & model & year & price;
+                long forModel = all & brand & year & price;
+                long forYear = all & brand & model & price;
+                long forPrice = all & brand & model & year;
+                matches[w] = forBrand & brand;
+                total += Long.bitCount(matches[w]);
+                for (long bits = forBrand | forModel | forYear | forPrice; bits != 0; bits &= bits - 1) {
+                    long bit = bits & -bits;
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if ((forBrand & bit) != 0) {
+                        brandCounts[brandBySlot[slot]]++;
+                    }
+                    if ((forModel & bit) != 0) {
+                        modelCounts[modelBySlot[slot]]++;
+                    }
+                    if ((forYear & bit) != 0) {
+                        yearCounts[yearBySlot[slot]]++;
+                    }
+                    if ((forPrice & bit) != 0) {
+                        priceCounts[priceBucketBySlot[slot]]++;
+                    }
+                }
+            }
+
+            // Самые дешевые машины — первые подходящие слоты в порядке возрастания цены внутри диапазона цен
+            int end = query.priceTo() == null ? slotsByPrice.length : upperBound(query.priceTo());
+            List<Car> found = new ArrayList<>(Math.min(total, query.limit()));
+            for (int i = query.priceFrom() == null ? 0 : lowerBound(query.priceFrom());
+                 i < end && found.size() < query.limit(); i++) {
+                int slot = slotsByPrice[i];
+                if ((word(matches, slot >> 6) & 1L << slot) != 0) {
+                    found.add(cars[slot]);
+                }
+            }
+            Map<Long, Integer> buckets = facet(priceBuckets, priceCounts);
+            Map<String, Integer> priceFacet = new LinkedHashMap<>();
+            buckets.forEach((bucket, count) -> priceFacet.put(priceRange(bucket), count));
+            return new CarSearchResult(total, found, facet(brandNames, brandCounts), facet(modelNames, modelCounts),
+                    facet(yearValues, yearCounts), priceFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Берет блокировку чтения, предварительно перестроив массив цен, если цены менялись.
+     * Перестройка идет под блокировкой записи, которая затем понижается до блокировки чтения.
+     * Если перестройка не удалась, ни одна блокировка не остается взятой.
+     */
+    private void lockSortedPrices() {
+        lock.readLock().lock();
+        if (!pricesDirty) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (pricesDirty) {
+                sortPrices();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Объединяет маски значений поля. Вызывается под блокировкой чтения.
+     *
+     * @return Маска слотов или null, если фильтр по полю не задан
+     */
+    private static BitSet terms(Map<String, BitSet> index, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (String value : values) {
+            BitSet slots = index.get(value);
+            if (slots != null) {
+                mask.or(slots);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet years(Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        byYear.subMap(from == null ? Integer.MIN_VALUE : from, true, to == null ? Integer.MAX_VALUE : to, true)
+                .values()
+                .forEach(mask::or);
+        return mask;
+    }
+
+    /**
+     * Строит маску машин с ценой в диапазоне по отсортированному массиву цен.
+     */
+    private BitSet prices(Double from, Double to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        int begin = from == null ? 0 : lowerBound(from);
+        int end = to == null ? sortedPrices.length : upperBound(to);
+        BitSet mask = new BitSet(slotCount);
+        for (int i = begin; i < end; i++) {
+            mask.set(slotsByPrice[i]);
+        }
+        return mask;
+    }
+
+
+    /**
+     * Собирает ненулевые счетчики фасета в упорядоченный по значению словарь.
+     */
+    private static <K extends Comparable<K>> Map<K, Integer> facet(List<K> values, int[] counts) {
+        Map<K, Integer> facet = new TreeMap<>();
+        for (int term = 0; term < counts.length; term++) {
+            if (counts[term] > 0) {
+                facet.put(values.get(term), counts[term]);
+            }
+        }
+        return facet;
+    }
+
+    private static long[] words(BitSet mask) {
+        return mask == null ? null : mask.toLongArray();
+    }
+
+    /**
+     * Слово маски; отсутствующая маска (фильтр не задан) пропускает все слоты.
+     */
+    private static long word(long[] words, int index) {
+        if (words == null) {
+            return -1L;
+        }
+        return index < words.length ? words[index] : 0;
+    }
+
+    private String priceRange(long bucket) {
+        return format(bucket * priceBucket) + "-" + format((bucket + 1) * priceBucket);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    /**
+     * Первый индекс в массиве цен с ценой не меньше заданной.
+     */
+    private int lowerBound(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Первый индекс в массиве цен с ценой больше заданной.
+     */
+    private int upperBound(double price) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Перестраивает массив цен: слоты сортируются по самой цене (Double.compare), машины с одинаковой ценой
+     * остаются в порядке слотов. Вызывается под блокировкой записи.
+     */
+    private void sortPrices() {
+        double[] prices = new double[slotCount];
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            prices[slot] = cars[slot].getPricePerDay();
+        }
+        int[] slots = live.stream()
+                .boxed()
+                .sorted((a, b) -> Double.compare(prices[a], prices[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        double[] sorted = new double[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            sorted[i] = prices[slots[i]];
+        }
+        slotsByPrice = slots;
+        sortedPrices = sorted;
+        pricesDirty = false;
+    }
+
+    /**
+     * Убирает слот из масок полей. Пустые маски удаляются, чтобы не попадать в фасеты.
+     * Вызывается под блокировкой записи.
+     */
+    private void unindex(int slot) {
+        Car car = cars[slot];
+        live.clear(slot);
+        available.clear(slot);
+        clear(byBrand, String.valueOf(car.getBrand()), slot);
+        clear(byModel, String.valueOf(car.getModel()), slot);
+        clear(byYear, car.getYear(), slot);
+    }
+
+    private static <K> int termId(Map<K, Integer> ids, List<K> names, K term) {
+        return ids.computeIfAbsent(term, name -> {
+            names.add(name);
+            return names.size() - 1;
+        });
+    }
+
+    private static <K> void clear(Map<K, BitSet> index, K term, int slot) {
+        BitSet slots = index.get(term);
+        if (slots != null) {
+            slots.clear(slot);
+            if (slots.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Выделяет слот для новой машины, повторно используя слоты удаленных машин.
+     *
+     * @return Номер слота
+     */
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == cars.length) {
+            cars = Arrays.copyOf(cars, cars.length * 2);
+            brandBySlot = Arrays.copyOf(brandBySlot, brandBySlot.length * 2);
+            modelBySlot = Arrays.copyOf(modelBySlot, modelBySlot.length * 2);
+            yearBySlot = Arrays.copyOf(yearBySlot, yearBySlot.length * 2);
+            priceBucketBySlot = Arrays.copyOf(priceBucketBySlot, priceBucketBySlot.length * 2);
+        }
+        return slotCount++;
+    }
+}
@@ -1,47 +1,203 @@
 package com.example.autopark.autopark.service;
 
+import com.example.autopark.autopark.entity.AvailabilityEvent;
 import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarSearchResult;
+import com.example.autopark.autopark.repository.BookingRepository;
 import com.example.autopark.autopark.repository.CarRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Сервис для работы с автомобилями.
  * Предоставляет методы для получения, добавления, удаления и обновления автомобилей.
+ * Каталог машин и отдельные машины кэшируются в памяти: при промахе значение загружается
+ * одним запросом, даже если его одновременно ждут несколько потоков, а изменения машин
+ * сбрасывают только затронутые записи кэша.
  */
 @Service
 public class CarService {
 
+    /**
+     * Варианты списка машин, хранящиеся в кэше каталога.
+     */
+    private enum CatalogView {
+        ALL,
+        AVAILABLE
+    }
+
     @Autowired
     private CarRepository carRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CarLockStripes carLocks;
+
+    @Autowired
+    private CarOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private CarSearchIndex searchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private AvailabilityEventBus availabilityEvents;
+
+    // Более длинный период не может быть забронирован, а его проверка перебирает каждый день периода
+    @Value("${autopark.booking.max-days:366}")
+    private int maxBookingDays;
+
+    @Value("${autopark.cars.cache-size:10000}")
+    private long cacheSize;
+
+    // Страховка от изменений, внесенных в базу данных в обход сервиса
+    @Value("${autopark.cars.cache-ttl:PT10M}")
+    private Duration cacheTtl;
+
+    private LoadingCache<CatalogView, List<Car>> catalogCache;
+    private LoadingCache<Long, Optional<Car>> carCache;
+
+    /**
+     * Создает кэши каталога и машин и регистрирует их метрики (попадания, промахи, время загрузки).
+     */
+    @PostConstruct
+    public void initCaches() {
+        catalogCache = Caffeine.newBuilder()
+                .maximumSize(CatalogView.values().length)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build(view -> List.copyOf(view == CatalogView.ALL
+                        ? carRepository.findAll()
+                        : carRepository.findByAvailableTrue()));
+        carCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build(carRepository::findById);
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogCache, "cars.catalog");
+        CaffeineCacheMetrics.monitor(meterRegistry, carCache, "cars.byId");
+    }
+
+    /**
+     * Получает список всех автомобилей из кэша каталога.
+     *
+     * @return Неизменяемый список всех автомобилей
+     */
+    public List<Car> getAllCars() {
+        return catalogCache.get(CatalogView.ALL);
+    }
+
+    /**
+     * Получает автомобиль по его ID из кэша. Отсутствие машины тоже кэшируется до её добавления.
+     *
+     * @param id ID автомобиля
+     * @return Optional, содержащий автомобиль, если он найден, или пустой Optional
+     */
+    public Optional<Car> getCarById(Long id) {
+        return carCache.get(id);
+    }
+
     /**
-     * Получает список всех доступных автомобилей.
+     * Получает список всех доступных автомобилей из кэша каталога.
      *
-     * @return Список доступных автомобилей
+     * @return Неизменяемый список доступных автомобилей
      */
     public List<Car> getAvailableCars() {
-        return carRepository.findByAvailableTrue();  // Получение всех доступных автомобилей
+        return catalogCache.get(CatalogView.AVAILABLE);  // Получение всех доступных автомобилей
+    }
+
+    /**
+     * Получает список автомобилей, свободных на весь указанный период.
+     * Ответ строится по посуточному индексу занятости без обращения к базе данных.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода
+     * @return Список автомобилей, доступных для бронирования на каждый день периода
+     * @throws RuntimeException Если период некорректен или длиннее допустимого бронирования
+     */
+    public List<Car> getAvailableCars(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Некорректный период");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxBookingDays) {
+            throw new RuntimeException("Период не может быть длиннее " + maxBookingDays + " суток");
+        }
+        return occupancyIndex.findFree(from, to);
+    }
+
+    /**
+     * Ищет автомобили по марке, модели, году выпуска и цене и считает фасеты.
+     * Ответ строится по инвертированному индексу в памяти без обращения к базе данных.
+     *
+     * @param query Условия поиска
+     * @return Самые дешевые из найденных автомобилей, их общее число и фасеты
+     */
+    public CarSearchResult searchCars(CarSearchIndex.Query query) {
+        return searchIndex.search(query);
     }
 
     /**
      * Добавляет новый автомобиль в базу данных.
      *
      * @param car Объект автомобиля для добавления
+     * @return Сохраненный автомобиль
+     * @throws RuntimeException Если у автомобиля уже задан ID: ID назначается базой данных
      */
-    public void addCar(Car car) {
-        carRepository.save(car);  // Добавление нового автомобиля
+    public Car addCar(Car car) {
+        if (car.getId() != null) {
+            throw new RuntimeException("ID новой машины назначается сервером");
+        }
+        Car saved = carRepository.save(car);  // Добавление нового автомобиля
+        occupancyIndex.putCar(saved);
+        searchIndex.putCar(saved);
+        invalidate(saved.getId());
+        availabilityEvents.carChanged(AvailabilityEvent.CAR_CREATED, saved);
+        return saved;
     }
 
     /**
-     * Удаляет автомобиль по его ID.
+     * Удаляет автомобиль по его ID, если у него нет бронирований.
+     * Проверка и удаление выполняются под блокировкой машины, поэтому новое бронирование
+     * не может появиться между ними.
      *
      * @param id ID автомобиля для удаления
+     * @throws CarHasBookingsException Если у машины есть бронирования
      */
     public void deleteCar(Long id) {
-        carRepository.deleteById(id);  // Удаление автомобиля по ID
+        Lock lock = carLocks.forCar(id);
+        lock.lock();
+        try {
+            if (bookingRepository.existsByCarId(id)) {
+                throw new CarHasBookingsException(id);
+            }
+            carRepository.deleteById(id);  // Удаление автомобиля по ID
+        } finally {
+            lock.unlock();
+        }
+        occupancyIndex.removeCar(id);
+        searchIndex.removeCar(id);
+        invalidate(id);
+        availabilityEvents.carDeleted(id);
     }
 
     /**
@@ -50,6 +206,41 @@ public class CarService {
      * @param car Объект автомобиля с обновленными данными
      */
     public void updateCar(Car car) {
-        carRepository.save(car);  // Обновление данных автомобиля
+        Car saved = carRepository.save(car);  // Обновление данных автомобиля
+        occupancyIndex.putCar(saved);
+        searchIndex.putCar(saved);
+        invalidate(saved.getId());
+        availabilityEvents.carChanged(AvailabilityEvent.CAR_UPDATED, saved);
+    }
+
+    /**
+     * Добавляет машины, вставленные пакетным импортом в обход репозитория, в индексы занятости и поиска
+     * и сбрасывает кэши: кэш машин может хранить отсутствие машины с новым ID.
+     * Вызывается после фиксации пакета.
+     *
+     * @param cars Вставленные машины с присвоенными ID
+     */
+    public void carsImported(List<Car> cars) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        cars.forEach(occupancyIndex::putCar);
+        cars.forEach(searchIndex::putCar);
+        carCache.invalidateAll();
+        catalogCache.invalidateAll();
+        resourceVersions.carsChanged();
+        cars.forEach(car -> availabilityEvents.carChanged(AvailabilityEvent.CAR_CREATED, car));
+    }
+
+    /**
+     * Сбрасывает кэш измененной машины и списки каталога, в которые она входит, и увеличивает версию каталога.
+     * Вызывается после фиксации изменения, поэтому следующая загрузка увидит новые данные.
+     *
+     * @param id ID измененной машины
+     */
+    private void invalidate(Long id) {
+        carCache.invalidate(id);
+        catalogCache.invalidateAll();
+        resourceVersions.carsChanged();
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.example.autopark.autopark.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Сервис выгрузки истории бронирований в CSV для бухгалтерии.
+ * Строки читаются однонаправленным курсором JDBC без создания сущностей и сразу пишутся в ответ,
+ * поэтому расход памяти не зависит от числа выгружаемых бронирований.
+ * Текстовые поля, которые табличный редактор принял бы за формулу, выгружаются с префиксом-апострофом.
+ */
+@Service
+public class CsvExportService {
+
+    private static final String BOOKINGS_HEADER =
+            "id,user_id,username,car_id,brand,model,start_date,end_date,days,price_per_day,revenue\n";
+
+    // Бронирования, начинающиеся в периоде, в порядке первичного ключа — без сортировки на стороне базы данных
+    private static final String BOOKINGS_QUERY = "select b.id, b.user_id, u.username, b.car_id, c.brand, c.model, "
+            + "b.start_date, b.end_date, c.price_per_day from bookings b "
+            + "join cars c on c.id = b.car_id join users u on u.id = b.user_id "
+            + "where b.start_date between ? and ? order by b.id";
+
+    // Размер буфера записи ответа
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Конструктор класса CsvExportService.
+     *
+     * @param dataSource         Источник данных приложения
+     * @param transactionManager Менеджер транзакций для открытия транзакции только для чтения
+     * @param fetchSize          Число строк, которые курсор получает от базы данных за одно обращение
+     */
+    public CsvExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                            @Value("${autopark.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Создает тело ответа, которое пишет бронирования периода в CSV.
+     * Запрос выполняется при записи ответа.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода (включительно)
+     * @return Тело ответа для потоковой записи
+     */
+    public StreamingResponseBody bookings(LocalDate from, LocalDate to) {
+        return out -> writeBookings(from, to, out);
+    }
+
+    /**
+     * Пишет в поток бронирования, начинающиеся в периоде, с числом суток аренды и выручкой по цене машины.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода (включительно)
+     * @param out  Поток для записи CSV в кодировке UTF-8
+     * @return Число выгруженных бронирований
+     * @throws IOException Если запись в поток не удалась
+     */
+    public long writeBookings(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        csv.write(BOOKINGS_HEADER);
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(BOOKINGS_QUERY, rs -> {
+                try {
+                    writeBooking(rs, csv);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, Date.valueOf(from), Date.valueOf(to)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+        return rows[0];
+    }
+
+    private static void writeBooking(ResultSet rs, Writer csv) throws SQLException, IOException {
+        LocalDate startDate = rs.getObject(7, LocalDate.class);
+        LocalDate endDate = rs.getObject(8, LocalDate.class);
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        long priceCents = Math.round(rs.getDouble(9) * 100);
+
+        csv.write(Long.toString(rs.getLong(1)));
+        csv.write(',');
+        csv.write(Long.toString(rs.getLong(2)));
+        csv.write(',');
+        writeText(csv, rs.getString(3));
+        csv.write(',');
+        csv.write(Long.toString(rs.getLong(4)));
+        csv.write(',');
+        writeText(csv, rs.getString(5));
+        csv.write(',');
+        writeText(csv, rs.getString(6));
+        csv.write(',');
+        csv.write(startDate.toString());
+        csv.write(',');
+        csv.write(endDate.toString());
+        csv.write(',');
+        csv.write(Long.toString(days));
+        csv.write(',');
+        writeCents(csv, priceCents);
+        csv.write(',');
+        writeCents(csv, priceCents * days);
+        csv.write('\n');
+    }
+
+    /**
+     * Пишет текстовое поле, заключая его в кавычки по RFC 4180, если оно содержит разделители или кавычки.
+     * Значение, начинающееся с =, +, -, @, табуляции или возврата каретки, предваряется апострофом,
+     * чтобы табличный редактор не выполнил его как формулу (имя пользователя задается при регистрации).
+     */
+    private static void writeText(Writer csv, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    /**
+     * Пишет денежную сумму в копейках в виде десятичной дроби с двумя знаками без промежуточных объектов BigDecimal.
+     */
+    private static void writeCents(Writer csv, long cents) throws IOException {
+        if (cents < 0) {
+            csv.write('-');
+            cents = -cents;
+        }
+        csv.write(Long.toString(cents / 100));
+        csv.write('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            csv.write('0');
+        }
+        csv.write(Long.toString(fraction));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.autopark.autopark.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выдачи JSON-массивов.
+ * Записи читаются из потока репозитория с ограниченным размером выборки JDBC и сразу пишутся в ответ,
+ * а контекст персистентности периодически очищается, поэтому расход памяти не зависит от размера таблицы.
+ */
+@Service
+public class JsonStreamService {
+
+    // Через сколько записей сбрасывать буфер ответа и очищать контекст персистентности
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectWriter writer;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Конструктор класса JsonStreamService.
+     *
+     * @param objectMapper       ObjectMapper приложения
+     * @param entityManager      EntityManager текущей транзакции
+     * @param transactionManager Менеджер транзакций для открытия транзакции только для чтения
+     */
+    public JsonStreamService(ObjectMapper objectMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager) {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Создает тело ответа, которое пишет результат запроса в виде JSON-массива.
+     * Запрос выполняется при записи ответа в отдельной транзакции только для чтения.
+     *
+     * @param query Запрос репозитория, возвращающий поток записей
+     * @param <T>   Тип записи
+     * @return Тело ответа для потоковой записи
+     */
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> query) {
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get(); JsonGenerator json = writer.createGenerator(out)) {
+                json.writeStartArray();
+                int written = 0;
+                for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                    writer.writeValue(json, it.next());
+                    if (++written % FLUSH_EVERY == 0) {
+                        json.flush();
+                        entityManager.clear();
+                    }
+                }
+                json.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
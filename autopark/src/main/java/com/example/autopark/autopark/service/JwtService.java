@@ -1,34 +1,103 @@
 package com.example.autopark.autopark.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Сервис для работы с JWT-токенами.
  * Предоставляет методы для генерации, валидации и извлечения данных из токенов.
+ * Ключ подписи и парсер создаются один раз, а данные уже проверенных токенов хранятся в кэше
+ * до истечения срока действия токена, поэтому повторная проверка того же токена не пересчитывает подпись.
+ * Публикует метрики кэша проверенных токенов (jwt.claims).
  */
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
 
     // Секретный ключ для подписи токенов
     private final String SECRET_KEY = "mySuperSecureKeyWithMoreThan32Characters123!";
 
+    // Ключ и парсер неизменяемы и потокобезопасны
+    private final Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Проверенные данные токенов по хешу токена; запись удаляется в момент истечения токена
+    private final Cache<String, Claims> verifiedClaims;
+
+    // Срок действия access-токена; после истечения клиент получает новый по refresh-токену
+    private final Duration accessTokenTtl;
+
+    /**
+     * Конструктор класса JwtService.
+     *
+     * @param cacheSize      Максимальное число проверенных токенов в кэше
+     * @param accessTokenTtl Срок действия access-токена
+     */
+    public JwtService(@Value("${autopark.jwt.cache-size:10000}") long cacheSize,
+                      @Value("${autopark.jwt.access-token-ttl:PT15M}") Duration accessTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return 0;
+                        }
+                        long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
     /**
      * Генерирует JWT-токен для указанного пользователя.
+     * ID пользователя передается в claim uid для проверки владельца бронирований.
      *
+     * @param userId   ID пользователя
      * @param username Имя пользователя
      * @param role     Роль пользователя
      * @return Сгенерированный JWT-токен
      */
-    public String generateToken(String username, String role) {
+    public String generateToken(Long userId, String username, String role) {
         return Jwts.builder()
                 .setSubject(username)
+                .claim("uid", userId)
                 .claim("role", role)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000)) // 1 день
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -49,21 +118,58 @@ public class JwtService {
 
     /**
      * Извлекает все данные (claims) из JWT-токена.
+     * Подпись проверяется только при первом обращении, далее данные берутся из кэша.
      *
      * @param token JWT-токен
      * @return Объект Claims, содержащий данные токена
      * @throws IllegalArgumentException Если токен некорректен
      */
     public Claims extractAllClaims(String token) {
+        String key = hash(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(SECRET_KEY)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
-            e.printStackTrace();
-            throw new IllegalArgumentException("Некорректный токен");
+            throw new IllegalArgumentException("Некорректный токен: " + e.getMessage(), e);
+        }
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * Возвращает статистику кэша проверенных токенов (число попаданий и промахов).
+     *
+     * @return Статистика кэша
+     */
+    public CacheStats getCacheStats() {
+        return verifiedClaims.stats();
+    }
+
+    /**
+     * Регистрирует метрики кэша проверенных токенов в реестре метрик.
+     *
+     * @param registry Реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedClaims, "jwt.claims");
+    }
+
+    /**
+     * Вычисляет хеш токена, используемый как ключ кэша, чтобы не хранить сами токены.
+     *
+     * @param token JWT-токен
+     * @return Хеш SHA-256 токена в кодировке Base64
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
-}
\ No newline at end of file
+}
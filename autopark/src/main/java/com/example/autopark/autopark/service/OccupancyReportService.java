@@ -0,0 +1,93 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.OccupancyReportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сервис отчетов о занятости автопарка.
+ * Отчет строится по индексу занятости в памяти, который BookingService обновляет при каждом создании
+ * и отмене бронирования, поэтому таблица бронирований не просматривается и время построения отчета
+ * не зависит от объема истории бронирований.
+ */
+@Service
+public class OccupancyReportService {
+
+    /**
+     * Группировка отчета.
+     */
+    public enum GroupBy {
+        CAR,
+        BRAND,
+        DAY
+    }
+
+    @Autowired
+    private CarOccupancyIndex occupancyIndex;
+
+    @Value("${autopark.reports.max-days:366}")
+    private int maxDays;
+
+    /**
+     * Строит отчет о занятости за период.
+     *
+     * @param from    Дата начала периода
+     * @param to      Дата окончания периода (включительно)
+     * @param groupBy Группировка: по машинам, маркам или дням
+     * @return Строки отчета, упорядоченные по группе
+     * @throws RuntimeException Если период некорректен или слишком длинный
+     */
+    public List<OccupancyReportRow> occupancy(LocalDate from, LocalDate to, GroupBy groupBy) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Некорректный период");
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new RuntimeException("Период не может быть длиннее " + maxDays + " суток");
+        }
+
+        CarOccupancyIndex.Occupancy occupancy = occupancyIndex.occupancy(from, to);
+        Car[] cars = occupancy.cars();
+        List<OccupancyReportRow> rows = new ArrayList<>();
+        switch (groupBy) {
+            case CAR -> {
+                for (int i = 0; i < cars.length; i++) {
+                    rows.add(row(String.valueOf(cars[i].getId()), 1, occupancy.occupiedDaysByCar()[i], days));
+                }
+                rows.sort((a, b) -> Long.compare(Long.parseLong(a.getGroup()), Long.parseLong(b.getGroup())));
+            }
+            case BRAND -> {
+                // Марка -> {число машин, занятые машино-сутки}
+                Map<String, long[]> byBrand = new TreeMap<>();
+                for (int i = 0; i < cars.length; i++) {
+                    long[] totals = byBrand.computeIfAbsent(String.valueOf(cars[i].getBrand()), brand -> new long[2]);
+                    totals[0]++;
+                    totals[1] += occupancy.occupiedDaysByCar()[i];
+                }
+                byBrand.forEach((brand, totals) -> rows.add(row(brand, (int) totals[0], totals[1], days)));
+            }
+            case DAY -> {
+                int[] carsByDay = occupancy.occupiedCarsByDay();
+                for (int i = 0; i < carsByDay.length; i++) {
+                    rows.add(row(from.plusDays(i).toString(), cars.length, carsByDay[i], 1));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static OccupancyReportRow row(String group, int cars, long occupiedCarDays, int days) {
+        long totalCarDays = (long) cars * days;
+        double share = totalCarDays == 0 ? 0 : (double) occupiedCarDays / totalCarDays;
+        return new OccupancyReportRow(group, cars, occupiedCarDays, totalCarDays, share);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.autopark.autopark.service;
+
+/**
+ * Исключение, выбрасываемое, когда очередь хеширования паролей заполнена
+ * и новая задача не может быть принята.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Конструктор класса PasswordHashingRejectedException.
+     *
+     * @param retryAfterSeconds Через сколько секунд клиенту стоит повторить запрос
+     */
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("Сервер перегружен запросами входа, повторите попытку позже.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Возвращает рекомендуемую задержку перед повтором запроса.
+     *
+     * @return Задержка в секундах
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.autopark.autopark.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Сервис хеширования и проверки паролей в отдельном ограниченном пуле потоков.
+ * BCrypt намеренно медленный, поэтому массовый вход пользователей не должен занимать потоки обработки запросов:
+ * число потоков пула равно числу процессоров, а очередь ограничена. Если очередь заполнена,
+ * задача сразу отклоняется с PasswordHashingRejectedException вместо ожидания.
+ * Публикует метрики глубины очереди, числа отклоненных задач и времени хеширования.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    /**
+     * Конструктор класса PasswordHashingService.
+     *
+     * @param passwordEncoder Кодировщик паролей
+     * @param meterRegistry   Реестр метрик
+     * @param threads         Число потоков пула, 0 — по числу процессоров
+     * @param queueCapacity   Максимальное число задач, ожидающих в очереди
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${autopark.password.threads:0}") int threads,
+                                  @Value("${autopark.password.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("autopark.password.hash")
+                .description("Время хеширования пароля")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("autopark.password.hash")
+                .description("Время хеширования пароля")
+                .tag("operation", "match")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("autopark.password.hash.rejected")
+                .description("Число задач хеширования, отклоненных из-за заполненной очереди")
+                .register(meterRegistry);
+        Gauge.builder("autopark.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Число задач хеширования в очереди")
+                .register(meterRegistry);
+        Gauge.builder("autopark.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Число выполняемых задач хеширования")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Хеширует пароль в пуле хеширования.
+     *
+     * @param rawPassword Нехешированный пароль
+     * @return Future с хешем пароля
+     * @throws PasswordHashingRejectedException Если очередь хеширования заполнена
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Проверяет пароль по хешу в пуле хеширования.
+     *
+     * @param rawPassword     Нехешированный пароль
+     * @param encodedPassword Хеш пароля
+     * @return Future с результатом проверки: true, если пароль совпадает, иначе false
+     * @throws PasswordHashingRejectedException Если очередь хеширования заполнена
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Ставит задачу в очередь пула с замером времени выполнения.
+     *
+     * @param timer Таймер операции
+     * @param task  Задача хеширования
+     * @return Future с результатом задачи
+     */
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds());
+        }
+    }
+
+    /**
+     * Оценивает, через сколько секунд пул разберет текущую очередь,
+     * исходя из среднего времени проверки пароля.
+     *
+     * @return Задержка в секундах, не меньше одной
+     */
+    private long retryAfterSeconds() {
+        double meanNanos = matchTimer.mean(TimeUnit.NANOSECONDS);
+        double backlogNanos = meanNanos * executor.getQueue().size() / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(backlogNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Останавливает пул хеширования при завершении приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
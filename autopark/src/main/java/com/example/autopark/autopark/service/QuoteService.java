@@ -0,0 +1,130 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.QuoteDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сервис расчета стоимости аренды всех свободных на период машин.
+ * Скидки зависят только от дат: выходные дни дешевле будних, а длительная аренда дает скидку на весь период.
+ * Поэтому стоимость любой машины равна её цене за сутки, умноженной на общий для всех машин коэффициент,
+ * и расчет выполняется одним проходом по массиву цен свободных машин из индекса занятости, без обращения к базе данных.
+ */
+@Service
+public class QuoteService {
+
+    // Младшие биты ключа сортировки хранят позицию машины, старшие — стоимость в копейках
+    private static final int POSITION_BITS = 24;
+
+    @Autowired
+    private CarOccupancyIndex occupancyIndex;
+
+    // Скидка на субботу и воскресенье, доля от цены за сутки
+    @Value("${autopark.quotes.weekend-discount:0.1}")
+    private double weekendDiscount;
+
+    // Аренда от указанного числа суток получает скидку на весь период
+    @Value("${autopark.quotes.long-rental-days:7}")
+    private int longRentalDays;
+
+    @Value("${autopark.quotes.long-rental-discount:0.15}")
+    private double longRentalDiscount;
+
+    @Value("${autopark.quotes.max-days:366}")
+    private int maxDays;
+
+    /**
+     * Рассчитывает стоимость аренды каждой машины, свободной на весь период.
+     *
+     * @param from        Дата начала периода
+     * @param to          Дата окончания периода (включительно)
+     * @param sortByPrice true — упорядочить по возрастанию стоимости, false — в порядке индекса
+     * @return Список расчетов стоимости
+     * @throws RuntimeException Если период некорректен или слишком длинный
+     */
+    public List<QuoteDTO> quote(LocalDate from, LocalDate to, boolean sortByPrice) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Некорректный период");
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new RuntimeException("Период не может быть длиннее " + maxDays + " суток");
+        }
+
+        CarOccupancyIndex.FreeCars free = occupancyIndex.findFreeWithPrices(from, to);
+        double[] prices = free.pricesPerDay();
+        int count = prices.length;
+
+        // Один проход по массиву цен: стоимость в копейках = цена за сутки * общий коэффициент периода
+        double centsPerPriceUnit = priceMultiplier(from, to) * 100;
+        long[] totals = new long[count];
+        boolean keysFit = count < (1 << POSITION_BITS);
+        for (int i = 0; i < count; i++) {
+            totals[i] = (long) (prices[i] * centsPerPriceUnit + 0.5);
+            keysFit &= totals[i] >= 0 && totals[i] < 1L << (Long.SIZE - 1 - POSITION_BITS);
+        }
+
+        Car[] cars = free.cars();
+        List<QuoteDTO> quotes = new ArrayList<>(count);
+        if (sortByPrice && keysFit) {
+            // Сортировка массива примитивов: ключ — стоимость и позиция, при равной стоимости порядок индекса сохраняется.
+            // Отрицательная или слишком большая стоимость в ключ не помещается, тогда сортируются DTO
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = totals[i] << POSITION_BITS | i;
+            }
+            Arrays.sort(keys);
+            for (long key : keys) {
+                int i = (int) (key & ((1 << POSITION_BITS) - 1));
+                quotes.add(toDTO(cars[i], days, totals[i]));
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                quotes.add(toDTO(cars[i], days, totals[i]));
+            }
+            if (sortByPrice) {
+                quotes.sort((a, b) -> Double.compare(a.getTotalPrice(), b.getTotalPrice()));
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Вычисляет коэффициент стоимости периода: число суток с учетом скидки на выходные,
+     * умноженное на скидку за длительную аренду. Стоимость машины равна её цене за сутки, умноженной на коэффициент.
+     *
+     * @param from Дата начала периода
+     * @param to   Дата окончания периода (включительно)
+     * @return Коэффициент стоимости периода
+     */
+    public double priceMultiplier(LocalDate from, LocalDate to) {
+        int days = 0;
+        int weekendDays = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days++;
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                weekendDays++;
+            }
+        }
+        double multiplier = (days - weekendDays) + weekendDays * (1 - weekendDiscount);
+        if (days >= longRentalDays) {
+            multiplier *= 1 - longRentalDiscount;
+        }
+        return multiplier;
+    }
+
+    private static QuoteDTO toDTO(Car car, int days, long totalCents) {
+        return new QuoteDTO(car.getId(), car.getBrand(), car.getModel(), car.getYear(), car.getPricePerDay(),
+                days, totalCents / 100.0);
+    }
+}
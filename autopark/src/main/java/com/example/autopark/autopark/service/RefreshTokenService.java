@@ -0,0 +1,126 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.RefreshToken;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Сервис для выдачи и обмена refresh-токенов.
+ * Refresh-токен — случайная непрозрачная строка, в базе данных хранится только её хеш.
+ * Обмен токена выдает новый access-токен без проверки пароля, а сам refresh-токен при этом
+ * заменяется новым (ротация), поэтому каждый токен можно использовать только один раз.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * Результат обмена refresh-токена: пользователь и выданный ему новый refresh-токен.
+     *
+     * @param user         Пользователь, которому принадлежал токен
+     * @param refreshToken Новый refresh-токен
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Конструктор класса RefreshTokenService.
+     *
+     * @param refreshTokenRepository Репозиторий refresh-токенов
+     * @param ttl                    Срок действия refresh-токена
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${autopark.jwt.refresh-token-ttl:P30D}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Выдает пользователю новый refresh-токен.
+     *
+     * @param user Пользователь
+     * @return Refresh-токен, который передается клиенту
+     */
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(null, hash(token), user, Instant.now().plus(ttl)));
+        return token;
+    }
+
+    /**
+     * Обменивает refresh-токен на новый. Старый токен удаляется; если два запроса
+     * одновременно предъявили один и тот же токен, успешен только один из них.
+     *
+     * @param token Refresh-токен клиента
+     * @return Optional с пользователем и новым refresh-токеном или пустой Optional,
+     *         если токен не найден, уже использован или истек
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (stored.isEmpty() || refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        if (stored.get().getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        User user = stored.get().getUser();
+        return Optional.of(new Rotation(user, issue(user)));
+    }
+
+    /**
+     * Периодически удаляет истекшие refresh-токены запросом по индексу срока действия.
+     */
+    @Scheduled(fixedDelayString = "${autopark.jwt.refresh-token-purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Удалено истекших refresh-токенов: {}", deleted);
+        }
+    }
+
+    /**
+     * Вычисляет хеш refresh-токена для хранения в базе данных.
+     *
+     * @param token Refresh-токен
+     * @return Хеш SHA-256 токена в кодировке Base64 без дополнения (43 символа)
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.autopark.autopark.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчики версий данных для построения ETag (см. ConditionalRequests).
+ * Изменения машин увеличивают версию каталога, а создание и отмена бронирований — общую версию бронирований
+ * и версию бронирований пользователя. ETag строится только из счетчиков, поэтому проверка If-None-Match
+ * не обращается к базе данных. Счетчики хранятся в памяти, а идентификатор запуска в составе ETag
+ * гарантирует, что после перезапуска сервера старые ETag не совпадут с новыми.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String bootId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong cars = new AtomicLong();
+    private final AtomicLong bookings = new AtomicLong();
+    private final Map<Long, AtomicLong> bookingsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Отмечает изменение машин (добавление, изменение, удаление).
+     * Вызывается после фиксации изменения.
+     */
+    public void carsChanged() {
+        cars.incrementAndGet();
+    }
+
+    /**
+     * Отмечает изменение бронирований пользователя (создание или отмена).
+     * Вызывается после фиксации изменения.
+     *
+     * @param userId ID пользователя, чьи бронирования изменились
+     */
+    public void bookingsChanged(Long userId) {
+        bookings.incrementAndGet();
+        bookingsByUser.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Возвращает версию списка машин, зависящего только от самих машин.
+     *
+     * @param view Название представления каталога (например, "cars" или "available")
+     * @return Версия для построения ETag
+     */
+    public String catalogVersion(String view) {
+        return version(view + "-" + cars.get());
+    }
+
+    /**
+     * Возвращает версию списка машин, свободных на период: она зависит и от машин, и от бронирований.
+     * Период входит в URL запроса, поэтому в версию не включается.
+     *
+     * @return Версия для построения ETag
+     */
+    public String availabilityVersion() {
+        return version("free-" + cars.get() + "-" + bookings.get());
+    }
+
+    /**
+     * Возвращает версию списка бронирований пользователя.
+     *
+     * @param userId ID пользователя
+     * @return Версия для построения ETag
+     */
+    public String userBookingsVersion(Long userId) {
+        AtomicLong version = bookingsByUser.get(userId);
+        return version("bookings-" + userId + "-" + (version == null ? 0 : version.get()));
+    }
+
+    private String version(String value) {
+        return bootId + "-" + value;
+    }
+}
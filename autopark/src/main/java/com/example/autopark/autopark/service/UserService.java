@@ -3,47 +3,60 @@ package com.example.autopark.autopark.service;
 import com.example.autopark.autopark.entity.Role;
 import com.example.autopark.autopark.entity.User;
 import com.example.autopark.autopark.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * Сервис для работы с пользователями.
  * Предоставляет методы для регистрации, поиска, проверки паролей и управления пользователями.
+ * Пул хеширования занят только BCrypt: работа с базой данных после хеширования выполняется
+ * в пуле задач приложения, чтобы ожидание соединения не задерживало хеширование других паролей.
  */
 @Service
 public class UserService {
 
     private final UserRepository userRepo;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashing;
+    private final Executor taskExecutor;
 
     /**
      * Конструктор класса UserService.
      *
-     * @param userRepo Репозиторий для работы с данными пользователей
+     * @param userRepo        Репозиторий для работы с данными пользователей
+     * @param passwordHashing Сервис хеширования паролей
+     * @param taskExecutor    Пул задач приложения для продолжений после хеширования
      */
-    public UserService(UserRepository userRepo) {
+    public UserService(UserRepository userRepo, PasswordHashingService passwordHashing,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
         this.userRepo = userRepo;
-        this.passwordEncoder = new BCryptPasswordEncoder(); // Инициализация
+        this.passwordHashing = passwordHashing;
+        this.taskExecutor = taskExecutor;
     }
 
     /**
      * Регистрирует нового пользователя.
-     * Хеширует пароль и устанавливает роль по умолчанию (CUSTOMER), если роль не указана.
+     * Хеширует пароль в пуле хеширования и устанавливает роль по умолчанию (CUSTOMER), если роль не указана.
+     * Пользователь сохраняется в пуле задач приложения.
      *
      * @param user Объект пользователя для регистрации
-     * @return Сохраненный объект пользователя
+     * @return Future с сохраненным объектом пользователя
+     * @throws PasswordHashingRejectedException Если очередь хеширования заполнена
      */
-    public User registerUser(User user) {
-        String hashedPassword = passwordEncoder.encode(user.getPassword());
-        user.setPassword(hashedPassword);
-        if (user.getRole() == null) {
-            user.setRole(Role.CUSTOMER);  // Устанавливаем тип по умолчанию
-        }
-        return userRepo.save(user);
+    public CompletableFuture<User> registerUser(User user) {
+        return passwordHashing.encode(user.getPassword()).thenApplyAsync(hashedPassword -> {
+            user.setPassword(hashedPassword);
+            if (user.getRole() == null) {
+                user.setRole(Role.CUSTOMER);  // Устанавливаем тип по умолчанию
+            }
+            return userRepo.save(user);
+        }, taskExecutor);
     }
 
     /**
@@ -78,12 +91,17 @@ public class UserService {
     /**
      * Проверяет, соответствует ли переданный пароль хешу пароля пользователя.
      *
+     * Проверка выполняется в пуле хеширования, а не в потоке обработки запроса. Результат передается
+     * в пул задач приложения, поэтому зависимые этапы (например, выдача refresh-токена) могут обращаться
+     * к базе данных, не занимая потоки хеширования.
+     *
      * @param rawPassword Нехешированный пароль
      * @param user        Объект пользователя
-     * @return true, если пароль совпадает, иначе false
+     * @return Future с результатом проверки: true, если пароль совпадает, иначе false
+     * @throws PasswordHashingRejectedException Если очередь хеширования заполнена
      */
-    public boolean checkPassword(String rawPassword, User user) {
-        return passwordEncoder.matches(rawPassword, user.getPassword());
+    public CompletableFuture<Boolean> checkPassword(String rawPassword, User user) {
+        return passwordHashing.matches(rawPassword, user.getPassword()).thenApplyAsync(Function.identity(), taskExecutor);
     }
 
     /**
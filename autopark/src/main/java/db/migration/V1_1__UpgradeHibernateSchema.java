@@ -0,0 +1,79 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Дополняет схему, созданную Hibernate до перехода на Flyway (ddl-auto=update), до версии 1.
+ * Такая база данных отмечается как базовая версия 1 (baseline-on-migrate), поэтому V1__initial_schema.sql
+ * на ней не выполняется, а в схеме нет столбца cars.version, таблицы генератора ID бронирований
+ * id_generators и таблицы refresh_tokens. Миграция создает только недостающие объекты, поэтому на базе,
+ * созданной V1, ничего не меняет и может безопасно выполняться повторно (например, после сбоя на MySQL,
+ * где DDL не откатывается). Проверки выполняются по метаданным JDBC, так как MySQL не поддерживает
+ * add column if not exists и create index if not exists.
+ */
+public class V1_1__UpgradeHibernateSchema extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            // Версия машины для оптимистической блокировки при бронировании
+            if (!columnExists(connection, "cars", "version")) {
+                statement.execute("alter table cars add column version bigint not null default 0");
+            }
+
+            // Бронирования, созданные Hibernate, получали ID через AUTO_INCREMENT,
+            // поэтому генератор начинается выше максимального существующего ID
+            statement.execute("""
+                    create table if not exists id_generators (
+                        sequence_name varchar(255) not null,
+                        next_val      bigint,
+                        primary key (sequence_name)
+                    )""");
+            statement.execute("""
+                    insert into id_generators (sequence_name, next_val)
+                    select 'bookings', (select coalesce(max(id), 0) + 1 from bookings) from (select 1 as one) seed
+                    where not exists (select 1 from id_generators where sequence_name = 'bookings')""");
+
+            statement.execute("""
+                    create table if not exists refresh_tokens (
+                        id         bigint      not null auto_increment,
+                        token_hash varchar(43) not null,
+                        user_id    bigint      not null,
+                        expires_at datetime(6) not null,
+                        primary key (id),
+                        constraint uk_refresh_tokens_token_hash unique (token_hash),
+                        constraint fk_refresh_tokens_user foreign key (user_id) references users (id) on delete cascade
+                    )""");
+            if (!indexExists(connection, "refresh_tokens", "idx_refresh_tokens_expires_at")) {
+                statement.execute("create index idx_refresh_tokens_expires_at on refresh_tokens (expires_at)");
+            }
+        }
+    }
+
+    private static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet columns = connection.getMetaData()
+                .getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+            return columns.next();
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Парк машин для профиля h2: 500 машин разных марок, моделей и годов выпуска (повторяемая миграция)
+insert into cars (brand, model, year, price_per_day, available, version)
+select case mod(n, 5) when 0 then 'Toyota' when 1 then 'BMW' when 2 then 'Lada' when 3 then 'Kia' else 'Skoda' end,
+       'Model ' || mod(n, 37),
+       2010 + mod(n, 15),
+       30 + mod(n * 7, 120),
+       mod(n, 10) <> 0,
+       0
+from system_range(1, 500) as r(n);
@@ -0,0 +1,54 @@
+-- Исходная схема, ранее создававшаяся Hibernate (ddl-auto=update).
+-- Для существующих баз данных эта версия не выполняется: Flyway отмечает ее как базовую (baseline-on-migrate).
+
+create table users (
+    id       bigint       not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    role     varchar(32),
+    primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+create table cars (
+    id            bigint       not null auto_increment,
+    brand         varchar(255),
+    model         varchar(255),
+    year          integer      not null,
+    price_per_day float(53)    not null,
+    available     bit          not null,
+    version       bigint       not null default 0,
+    primary key (id)
+);
+
+-- Идентификаторы бронирований выделяются блоками из таблицы id_generators
+create table id_generators (
+    sequence_name varchar(255) not null,
+    next_val      bigint,
+    primary key (sequence_name)
+);
+
+insert into id_generators (sequence_name, next_val) values ('bookings', 1);
+
+create table bookings (
+    id         bigint not null,
+    user_id    bigint,
+    car_id     bigint,
+    start_date date,
+    end_date   date,
+    primary key (id),
+    constraint fk_bookings_user foreign key (user_id) references users (id),
+    constraint fk_bookings_car foreign key (car_id) references cars (id)
+);
+
+create table refresh_tokens (
+    id         bigint      not null auto_increment,
+    token_hash varchar(43) not null,
+    user_id    bigint      not null,
+    expires_at datetime(6) not null,
+    primary key (id),
+    constraint uk_refresh_tokens_token_hash unique (token_hash),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id) on delete cascade
+);
+
+create index idx_refresh_tokens_expires_at on refresh_tokens (expires_at);
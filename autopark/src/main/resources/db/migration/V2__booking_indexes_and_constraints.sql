@@ -0,0 +1,26 @@
+-- Индексы для частых запросов бронирований и ограничения предметной области.
+
+-- Бронирования машины и проверка пересечения периодов: car_id = ? and start_date <= ? and end_date >= ?
+create index idx_bookings_car_dates on bookings (car_id, start_date, end_date);
+
+-- Бронирования пользователя: user_id = ?
+create index idx_bookings_user on bookings (user_id);
+
+-- Бронирование всегда относится к пользователю и машине и имеет корректный период (даты включительно)
+alter table bookings modify column user_id bigint not null;
+alter table bookings modify column car_id bigint not null;
+alter table bookings modify column start_date date not null;
+alter table bookings modify column end_date date not null;
+alter table bookings add constraint chk_bookings_period check (start_date <= end_date);
+
+alter table cars add constraint chk_cars_price_per_day check (price_per_day >= 0);
+
+-- Бронирования, созданные до перехода на табличный генератор, получали ID через AUTO_INCREMENT,
+-- поэтому значение генератора поднимается выше максимального существующего ID
+insert into id_generators (sequence_name, next_val)
+select 'bookings', 1 from (select 1 as one) seed
+where not exists (select 1 from id_generators where sequence_name = 'bookings');
+
+update id_generators
+set next_val = (select coalesce(max(id), 0) + 1 from bookings)
+where sequence_name = 'bookings' and next_val < (select coalesce(max(id), 0) + 1 from bookings);
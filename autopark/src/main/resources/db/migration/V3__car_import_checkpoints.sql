@@ -0,0 +1,11 @@
+-- Контрольные точки пакетного импорта машин: сколько строк файла уже зафиксировано.
+-- Обновляются в той же транзакции, что и вставка пакета, поэтому повторный импорт
+-- с тем же import_id продолжается со следующей строки после последнего зафиксированного пакета.
+create table car_import_checkpoints (
+    import_id  varchar(64)  not null,
+    rows_read  bigint       not null,
+    imported   bigint       not null,
+    rejected   bigint       not null,
+    updated_at timestamp(6) not null,
+    primary key (import_id)
+);
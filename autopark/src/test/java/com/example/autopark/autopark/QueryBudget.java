@@ -0,0 +1,84 @@
+package com.example.autopark.autopark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Бюджет SQL-запросов эндпоинтов на основе статистики Hibernate (Statistics).
+ * Записывает число запросов, выполненных каждым проверенным действием, и завершает тест ошибкой,
+ * если число запросов превышает заявленный бюджет. Сообщение об ошибке содержит число загрузок
+ * сущностей и коллекций по одной и выполненные запросы, что сразу указывает на N+1 или жадную загрузку связи.
+ * Статистика Hibernate общая для всего приложения, поэтому действия должны выполняться последовательно.
+ */
+public class QueryBudget {
+
+    /**
+     * Проверяемое действие, например запрос MockMvc к эндпоинту.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private final Statistics statistics;
+    private final Map<String, Long> recorded = new LinkedHashMap<>();
+
+    /**
+     * Конструктор класса QueryBudget.
+     *
+     * @param entityManagerFactory Фабрика EntityManager приложения с включенной статистикой
+     *                             (hibernate.generate_statistics=true)
+     */
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Выполняет действие и возвращает число подготовленных им SQL-запросов.
+     *
+     * @param endpoint Название эндпоинта, под которым записывается результат
+     * @param action   Действие
+     * @return Число SQL-запросов
+     */
+    public long measure(String endpoint, Action action) throws Exception {
+        statistics.clear();
+        action.run();
+        long statements = statistics.getPrepareStatementCount();
+        recorded.merge(endpoint, statements, Math::max);
+        return statements;
+    }
+
+    /**
+     * Выполняет действие и проверяет, что оно уложилось в бюджет SQL-запросов.
+     *
+     * @param endpoint Название эндпоинта, например "GET /api/bookings"
+     * @param budget   Максимально допустимое число SQL-запросов
+     * @param action   Действие
+     */
+    public void assertWithin(String endpoint, long budget, Action action) throws Exception {
+        long statements = measure(endpoint, action);
+        if (statements > budget) {
+            fail(String.format("%s: выполнено SQL-запросов %d при бюджете %d "
+                            + "(загрузок сущностей по одной: %d, загрузок коллекций: %d, запросы: %s)",
+                    endpoint, statements, budget, statistics.getEntityFetchCount(),
+                    statistics.getCollectionFetchCount(), Arrays.toString(statistics.getQueries())));
+        }
+    }
+
+    /**
+     * Возвращает наибольшее записанное число SQL-запросов по каждому эндпоинту.
+     *
+     * @return Число запросов по эндпоинтам в порядке проверки
+     */
+    public Map<String, Long> recorded() {
+        return Collections.unmodifiableMap(recorded);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.AvailabilityEventBus;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Проверяет поток событий доступности машин: доставку изменений машин и бронирований, досылку пропущенных
+ * событий по Last-Event-ID, переход медленного подписчика в resync и то, что тысячи ожидающих подписчиков
+ * не занимают потоков.
+ * Время рассылки события тысячам подписчиков измеряется бенчмарком AvailabilityEventsBenchmark (профиль jmh).
+ * Использует отдельную базу данных, чтобы добавленные машины не попадали в индексы других тестов.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:events_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1",
+        "autopark.events.buffer-size=64"})
+// Печать результата MockMvc читает ответ одновременно с записью событий, поэтому отключена
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@WithMockUser
+class AvailabilityEventsTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:(\\S+)\\nevent:(\\S+)\\n");
+
+    private static final int IDLE_SUBSCRIBERS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvailabilityEventBus availabilityEvents;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Поток SSE клиента, записывающий имена событий. Отправка может ждать открытия шлюза,
+     * что имитирует клиента, который не успевает читать.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch gate;
+        private final CountDownLatch received;
+
+        RecordingEmitter(CountDownLatch gate, CountDownLatch received) {
+            this.gate = gate;
+            this.received = received;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            Matcher matcher = EVENT.matcher(text);
+            if (matcher.find()) {
+                events.add(matcher.group(2));
+                received.countDown();
+            }
+        }
+    }
+
+    @Test
+    void streamsCarAndBookingChangesAndReplaysAfterReconnect() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/cars/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertTrue(stream.getContentType().startsWith("text/event-stream"));
+
+        Long userId = userRepository.save(new User(null, "events-user", "hash", Role.CUSTOMER)).getId();
+        Car car = carService.addCar(new Car(null, "Events", "Stream", 2023, 40.0, true, 0));
+        car.setPricePerDay(45.0);
+        carService.updateCar(car);
+        LocalDate start = LocalDate.of(2035, 3, 1);
+        bookingService.createBooking(new BookingDTO(null, userId, car.getId(), start, start.plusDays(2)));
+        Long bookingId = bookingService.getBookingsByCar(car.getId()).get(0).getId();
+        bookingService.cancelBooking(bookingId);
+        carService.deleteCar(car.getId());
+
+        List<String[]> events = awaitEvents(stream, 5);
+        assertEquals(List.of("car-created", "car-updated", "booking-created", "booking-cancelled", "car-deleted"),
+                events.stream().map(event -> event[1]).toList());
+        assertTrue(stream.getContentAsString().contains("\"bookingId\":" + bookingId));
+        assertTrue(!stream.getContentAsString().contains("events-user"));
+
+        // Переподключение после второго события досылает три последующих
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/cars/events")
+                        .header("Last-Event-ID", events.get(1)[0]))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertEquals(List.of("booking-created", "booking-cancelled", "car-deleted"),
+                awaitEvents(resumed, 3).stream().map(event -> event[1]).toList());
+
+        // ID от предыдущего запуска сервера досылке не подлежит
+        MockHttpServletResponse stale = mockMvc.perform(get("/api/cars/events").header("Last-Event-ID", "old-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertEquals("resync", awaitEvents(stale, 1).get(0)[1]);
+    }
+
+    @Test
+    void slowSubscriberIsResynchronized() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(gate, received);
+        availabilityEvents.subscribe(slow, null);
+
+        // Первое событие занимает поток отправки, следующие переполняют буфер из 64 событий
+        for (int i = 0; i < 200; i++) {
+            availabilityEvents.carDeleted(1_000_000L + i);
+        }
+        gate.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!slow.events.contains("resync") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(slow.events.contains("resync"));
+        assertTrue(slow.events.size() < 200, "Отброшенные события не должны доставляться");
+
+        // После resync подписчик снова получает события
+        availabilityEvents.carDeleted(2_000_000L);
+        while (!"car-deleted".equals(slow.events.get(slow.events.size() - 1)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("car-deleted", slow.events.get(slow.events.size() - 1));
+        slow.complete();
+    }
+
+    @Test
+    void idleSubscribersDoNotHoldThreads() throws Exception {
+        CountDownLatch open = new CountDownLatch(0);
+        CountDownLatch received = new CountDownLatch(IDLE_SUBSCRIBERS);
+        List<RecordingEmitter> emitters = new ArrayList<>(IDLE_SUBSCRIBERS);
+        int threadsBefore = Thread.activeCount();
+        for (int i = 0; i < IDLE_SUBSCRIBERS; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(open, received);
+            availabilityEvents.subscribe(emitter, null);
+            emitters.add(emitter);
+        }
+        int threadsAfter = Thread.activeCount();
+        assertTrue(threadsAfter - threadsBefore < 50, "Ожидающие подписчики не должны занимать потоки");
+
+        // Событие доходит до каждого подписчика
+        availabilityEvents.carDeleted(3_000_000L);
+        assertTrue(received.await(30, TimeUnit.SECONDS));
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    /**
+     * Ожидает указанное число событий в ответе и возвращает пары (ID, имя события).
+     */
+    private static List<String[]> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            List<String[]> events = new ArrayList<>();
+            Matcher matcher = EVENT.matcher(response.getContentAsString());
+            while (matcher.find()) {
+                events.add(new String[]{matcher.group(1), matcher.group(2)});
+            }
+            if (events.size() >= count || System.nanoTime() > deadline) {
+                assertEquals(count, events.size(), response.getContentAsString());
+                return events;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
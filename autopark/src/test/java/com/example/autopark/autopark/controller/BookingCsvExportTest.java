@@ -0,0 +1,128 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.service.CsvExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.OutputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет выгрузку бронирований в CSV: формат строк, экранирование, защиту от формул, расчет выручки
+ * и выгрузку 300 000 бронирований.
+ * Скорость выгрузки измеряется бенчмарком CsvExportBenchmark (профиль jmh).
+ * Использует отдельную базу данных, чтобы большая история бронирований не попадала в индексы других тестов.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+// Вывод запросов отключен: он читает заголовки ответа, пока тело еще пишется в отдельном потоке
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@WithMockUser(roles = "ADMIN")
+class BookingCsvExportTest {
+
+    private static final int CARS = 1_000;
+    private static final int BOOKINGS = 300_000;
+    private static final LocalDate ORIGIN = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @BeforeEach
+    void setUp() {
+        if (jdbcTemplate.queryForObject("select count(*) from bookings", Integer.class) >= BOOKINGS) {
+            return;
+        }
+        jdbcTemplate.update("insert into users (id, username, password, role) values (1, 'finance', 'x', 'CUSTOMER')");
+        List<Object[]> cars = new ArrayList<>(CARS);
+        for (int i = 1; i <= CARS; i++) {
+            String brand = switch (i) {
+                case 1 -> "Rolls, \"Royce\"";
+                case 2 -> "=HYPERLINK(\"http://evil\")";
+                case 3 -> "-2+3";
+                default -> "Brand" + (i % 20);
+            };
+            cars.add(new Object[]{i, brand, "Model" + (i % 200), 2000 + i % 25, 30.5 + i % 70, true, 0});
+        }
+        jdbcTemplate.batchUpdate("insert into cars (id, brand, model, year, price_per_day, available, version) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", cars);
+        List<Object[]> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 1; i <= BOOKINGS; i++) {
+            // Каждая машина бронируется подряд на 3 суток: 300 бронирований на машину, около 2,5 лет истории
+            LocalDate start = ORIGIN.plusDays(3L * ((i - 1) / CARS));
+            bookings.add(new Object[]{i, 1, 1 + (i - 1) % CARS, Date.valueOf(start), Date.valueOf(start.plusDays(2))});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, user_id, car_id, start_date, end_date) "
+                + "values (?, ?, ?, ?, ?)", bookings);
+    }
+
+    @Test
+    void exportsBookingsWithDaysAndRevenue() throws Exception {
+        String csv = export(ORIGIN.toString(), ORIGIN.toString())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals("id,user_id,username,car_id,brand,model,start_date,end_date,days,price_per_day,revenue", lines[0]);
+        assertEquals(1 + CARS, lines.length);
+        assertEquals("1,1,finance,1,\"Rolls, \"\"Royce\"\"\",Model1,2020-01-01,2020-01-03,3,31.50,94.50", lines[1]);
+        // Значения, похожие на формулы, выгружаются как текст
+        assertTrue(lines[2].startsWith("2,1,finance,2,\"'=HYPERLINK(\"\"http://evil\"\")\",Model2,"), lines[2]);
+        assertTrue(lines[3].startsWith("3,1,finance,3,'-2+3,Model3,"), lines[3]);
+
+        export("2020-02-01", "2020-01-01").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamsFullHistory() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        long rows = csvExportService.writeBookings(ORIGIN, ORIGIN.plusYears(10), out);
+
+        assertEquals(BOOKINGS, rows);
+        assertTrue(out.bytes > BOOKINGS * 50L, "Каждая строка должна быть выгружена");
+    }
+
+    private ResultActions export(String from, String to) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/exports/bookings.csv").param("from", from).param("to", to))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import com.example.autopark.autopark.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что клиент создает, просматривает и отменяет только свои бронирования:
+ * владелец берется из JWT-токена, а не из тела запроса, администратор работает с бронированиями всех.
+ * Машину с бронированиями удалить нельзя.
+ * Использует отдельную базу данных, чтобы машины и бронирования не попадали в индексы других тестов.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ownership_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class BookingOwnershipTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void customerActsOnlyOnOwnBookings() throws Exception {
+        User alice = userRepository.save(new User(null, "ownership-alice", "hash", Role.CUSTOMER));
+        User bob = userRepository.save(new User(null, "ownership-bob", "hash", Role.CUSTOMER));
+        String aliceToken = token(alice);
+        String bobToken = token(bob);
+        String adminToken = "Bearer " + jwtService.generateToken(null, "ownership-admin", "ADMIN");
+        Long carId = carService.addCar(new Car(null, "Ownership", "Check", 2022, 35.0, true, 0)).getId();
+
+        // userId из тела запроса клиента не учитывается
+        mockMvc.perform(post("/api/bookings").header("Authorization", aliceToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + bob.getId() + ",\"carId\":" + carId
+                                + ",\"startDate\":\"2037-05-01\",\"endDate\":\"2037-05-03\"}"))
+                .andExpect(status().isOk());
+        assertEquals(0, bookingService.getBookingsByUser(bob.getId()).size());
+        List<BookingDTO> aliceBookings = bookingService.getBookingsByUser(alice.getId());
+        assertEquals(1, aliceBookings.size());
+        Long bookingId = aliceBookings.get(0).getId();
+
+        mockMvc.perform(get("/api/bookings/user/" + alice.getId()).header("Authorization", aliceToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings/user/" + alice.getId()).header("Authorization", bobToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/bookings/user/" + alice.getId()).header("Authorization", adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/bookings/" + bookingId).header("Authorization", bobToken))
+                .andExpect(status().isForbidden());
+        assertEquals(1, bookingService.getBookingsByUser(alice.getId()).size());
+        // Машину с бронированиями удалить нельзя
+        mockMvc.perform(delete("/api/cars/" + carId).header("Authorization", adminToken))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/bookings/" + bookingId).header("Authorization", aliceToken))
+                .andExpect(status().isOk());
+        assertEquals(0, bookingService.getBookingsByUser(alice.getId()).size());
+        mockMvc.perform(delete("/api/cars/" + carId).header("Authorization", adminToken))
+                .andExpect(status().isOk());
+    }
+
+    private String token(User user) {
+        return "Bearer " + jwtService.generateToken(user.getId(), user.getUsername(), user.getRole().name());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.CarImportReport;
+import com.example.autopark.autopark.service.CarImportConflictException;
+import com.example.autopark.autopark.service.CarImportService;
+import com.example.autopark.autopark.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет пакетный импорт машин: проверку строк, оба формата файла, продолжение после сбоя
+ * без повторной вставки зафиксированных пакетов, отказ одновременного импорта с тем же ID
+ * и импорт 50 000 строк.
+ * Использует отдельную базу данных, чтобы импортированные машины не попадали в индексы других тестов.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1",
+        "autopark.import.batch-size=100"
+})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CarImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarImportService carImportService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidRowsAndReportsRejected() throws Exception {
+        String csv = "brand,model,year,pricePerDay,available\n"
+                + "Lada,Vesta,2021,30.5,true\n"
+                + "\"Mercedes, Benz\",\"E \"\"200\"\"\",2020,90,\n"
+                + ",Rio,2020,40,true\n"
+                + "Kia,Rio,1700,40,true\n"
+                + "Kia,Rio,2020,-1,true\n"
+                + "Skoda,Octavia,2019,25,false\n";
+        mockMvc.perform(post("/api/cars/import").param("importId", "csv-small")
+                        .contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(6))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejectedRows[0].row").value(3))
+                .andExpect(jsonPath("$.rejectedRows[0].reason").value("Некорректная марка"))
+                .andExpect(jsonPath("$.rejectedRows[1].reason").value("Некорректный год выпуска"))
+                .andExpect(jsonPath("$.rejectedRows[2].reason").value("Некорректная цена за сутки"));
+
+        assertEquals("E \"200\"", jdbcTemplate.queryForObject(
+                "select model from cars where brand = 'Mercedes, Benz'", String.class));
+        // Импортированные машины сразу видны в индексе занятости
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        assertEquals(2, carService.getAvailableCars(day, day).stream()
+                .filter(car -> car.getBrand().equals("Lada") || car.getBrand().startsWith("Mercedes"))
+                .count());
+
+        mockMvc.perform(post("/api/cars/import").contentType("text/csv").content("brand,model\nKia,Rio\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/cars/import").contentType("application/xml").content("<cars/>"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void resumesFromCheckpointAfterFailure() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            lines.append("{\"brand\":\"Resume\",\"model\":\"M").append(i)
+                    .append("\",\"year\":2020,\"pricePerDay\":").append(20 + i % 50).append("}\n");
+        }
+        byte[] file = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Поток обрывается в середине файла: зафиксированы только полные пакеты до обрыва
+        assertThrows(IOException.class, () -> carImportService.importCars(
+                failingAfter(file, file.length / 2), CarImportService.Format.JSON_LINES, "jsonl-resume"));
+        long committed = jdbcTemplate.queryForObject("select count(*) from cars where brand = 'Resume'", Long.class);
+        assertEquals(0, committed % 100);
+
+        CarImportReport report = carImportService.importCars(
+                new ByteArrayInputStream(file), CarImportService.Format.JSON_LINES, "jsonl-resume");
+        assertEquals(committed, report.getSkippedRows());
+        assertEquals(1_000 - committed, report.getImported());
+        assertEquals(1_000, jdbcTemplate.queryForObject(
+                "select count(distinct model) from cars where brand = 'Resume'", Long.class));
+        assertEquals(1_000, jdbcTemplate.queryForObject(
+                "select count(*) from cars where brand = 'Resume'", Long.class));
+    }
+
+    @Test
+    void concurrentImportWithSameIdIsRejected() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            lines.append("{\"brand\":\"Race\",\"model\":\"M").append(i).append("\",\"year\":2020,\"pricePerDay\":30}\n");
+        }
+        byte[] file = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Пока первый импорт читает вторую половину файла, второй с тем же ID импортирует файл целиком
+        assertThrows(CarImportConflictException.class, () -> carImportService.importCars(
+                runningAfter(file, file.length / 2, () -> carImportService.importCars(
+                        new ByteArrayInputStream(file), CarImportService.Format.JSON_LINES, "jsonl-race")),
+                CarImportService.Format.JSON_LINES, "jsonl-race"));
+        assertEquals(500, jdbcTemplate.queryForObject(
+                "select count(*) from cars where brand = 'Race'", Long.class));
+
+        // Второй импорт создает контрольную точку раньше первой фиксации первого
+        assertThrows(CarImportConflictException.class, () -> carImportService.importCars(
+                runningAfter(file, 0, () -> carImportService.importCars(
+                        new ByteArrayInputStream(file), CarImportService.Format.JSON_LINES, "jsonl-race-2")),
+                CarImportService.Format.JSON_LINES, "jsonl-race-2"));
+        assertEquals(1_000, jdbcTemplate.queryForObject(
+                "select count(*) from cars where brand = 'Race'", Long.class));
+
+        mockMvc.perform(post("/api/cars/import").param("importId", "jsonl-race")
+                        .contentType("application/x-ndjson").content(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.skippedRows").value(500))
+                .andExpect(jsonPath("$.imported").value(0));
+    }
+
+    @Test
+    void reportsThroughput() throws Exception {
+        StringBuilder csv = new StringBuilder("brand,model,year,pricePerDay\n");
+        for (int i = 0; i < 50_000; i++) {
+            csv.append("Fleet").append(i % 20).append(",Model").append(i % 200).append(',')
+                    .append(2000 + i % 25).append(',').append(30 + i % 70).append('\n');
+        }
+        CarImportReport report = carImportService.importCars(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                CarImportService.Format.CSV, "csv-throughput");
+        assertEquals(50_000, report.getImported());
+        assertEquals(500, report.getBatches());
+        assertTrue(report.getRowsPerSecond() > 0);
+    }
+
+    /**
+     * Поток, который перед чтением после первых bytes байт один раз выполняет action.
+     */
+    private static InputStream runningAfter(byte[] file, int bytes, Callable<?> action) {
+        return new FilterInputStream(new ByteArrayInputStream(file)) {
+            private int position;
+            private boolean done;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (!done && position >= bytes) {
+                    done = true;
+                    try {
+                        action.call();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                int read = super.read(b, off, position < bytes ? Math.min(len, bytes - position) : len);
+                position += Math.max(read, 0);
+                return read;
+            }
+        };
+    }
+
+    private static InputStream failingAfter(byte[] file, int bytes) {
+        return new FilterInputStream(new ByteArrayInputStream(file, 0, bytes)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read < 0) {
+                    throw new IOException("Соединение разорвано");
+                }
+                return read;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет условные запросы: совпавший ETag дает 304 без запросов к базе данных и без тела ответа,
+ * а изменения машин и бронирований меняют ETag соответствующих списков.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void carCatalogReturnsNotModified() throws Exception {
+        carService.addCar(new Car(null, "Skoda", "Octavia", 2020, 45.0, true, 0));
+        String etag = etag("/api/cars");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/cars").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount(), "Ответ 304 не должен обращаться к базе данных");
+
+        carService.addCar(new Car(null, "Skoda", "Fabia", 2021, 38.0, true, 0));
+        mockMvc.perform(get("/api/cars").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, etag("/api/cars"));
+    }
+
+    @Test
+    void userBookingsETagChangesWithBookings() throws Exception {
+        User user = userRepository.save(new User(null, "etag-user", "x", Role.CUSTOMER));
+        Car car = carService.addCar(new Car(null, "Toyota", "Corolla", 2022, 50.0, true, 0));
+        String url = "/api/bookings/user/" + user.getId();
+        String freeUrl = "/api/cars/available?from=2030-01-01&to=2030-01-05";
+        String bookingsETag = etag(url);
+        String freeETag = etag(freeUrl);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, bookingsETag))
+                .andExpect(status().isNotModified());
+
+        bookingService.createBooking(new BookingDTO(null, user.getId(), car.getId(),
+                LocalDate.of(2030, 1, 2), LocalDate.of(2030, 1, 3)));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, bookingsETag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(freeUrl).header(HttpHeaders.IF_NONE_MATCH, freeETag))
+                .andExpect(status().isOk());
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+}
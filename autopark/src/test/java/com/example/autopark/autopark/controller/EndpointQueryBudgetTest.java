@@ -0,0 +1,153 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.QueryBudget;
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджеты SQL-запросов эндпоинтов чтения.
+ * Каждый эндпоинт проверяется при разном числе строк, поэтому бюджет должен соблюдаться
+ * независимо от объема данных: загрузка связей по одной (N+1) или жадная загрузка связи бронирования
+ * приводит к падению теста с перечнем выполненных запросов.
+ * Машины и бронирования создаются через сервисы, чтобы попасть в индексы и кэши в памяти, и только добавляются:
+ * база данных отдельная, а объем растет от проверки к проверке.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query_budget_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class EndpointQueryBudgetTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2026, 1, 1);
+
+    // Созданные данные общие для всех проверок, так как контекст приложения и база данных общие
+    private static final List<User> users = new ArrayList<>();
+    private static final List<Car> cars = new ArrayList<>();
+    private static int bookings;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 200})
+    void readEndpointsStayWithinBudget(int rows) throws Exception {
+        seed(rows);
+        long userId = users.get(0).getId();
+        long carId = cars.get(0).getId();
+
+        // Эндпоинт -> максимально допустимое число SQL-запросов
+        Map<String, Integer> budgets = new LinkedHashMap<>();
+        budgets.put("/api/bookings", 1);
+        budgets.put("/api/bookings?afterId=0&limit=50", 1);
+        budgets.put("/api/bookings/user/" + userId, 1);
+        budgets.put("/api/bookings/car/" + carId, 1);
+        budgets.put("/api/cars", 1);
+        budgets.put("/api/cars/" + carId, 1);
+        budgets.put("/api/cars/available", 1);
+        budgets.put("/api/cars/available?from=2030-01-01&to=2030-01-05", 1);
+        budgets.put("/api/users", 1);
+        budgets.put("/api/users/" + userId, 1);
+
+        QueryBudget budget = new QueryBudget(entityManagerFactory);
+        for (Map.Entry<String, Integer> entry : budgets.entrySet()) {
+            budget.assertWithin("GET " + entry.getKey(), entry.getValue(),
+                    () -> mockMvc.perform(get(entry.getKey())).andExpect(status().isOk()));
+        }
+    }
+
+    @Test
+    void bookingListsReturnAllRowsWithinBudget() throws Exception {
+        seed(50);
+        User user = users.get(0);
+        Car car = cars.get(0);
+        int userBookings = bookingService.getBookingsByUser(user.getId()).size();
+        int carBookings = bookingService.getBookingsByCar(car.getId()).size();
+
+        QueryBudget budget = new QueryBudget(entityManagerFactory);
+        budget.assertWithin("GET /api/bookings", 1, () -> mockMvc.perform(get("/api/bookings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(bookings)));
+        budget.assertWithin("GET /api/bookings/user/{id}", 1, () -> mockMvc.perform(get("/api/bookings/user/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(userBookings))
+                .andExpect(jsonPath("$[0].userId").value(user.getId())));
+        budget.assertWithin("GET /api/bookings/car/{id}", 1, () -> mockMvc.perform(get("/api/bookings/car/" + car.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(carBookings))
+                .andExpect(jsonPath("$[0].carId").value(car.getId())));
+    }
+
+    @Test
+    void debugHeaderReportsStatementCount() throws Exception {
+        seed(20);
+        String url = "/api/bookings/user/" + users.get(0).getId();
+
+        QueryBudget budget = new QueryBudget(entityManagerFactory);
+        String[] header = new String[1];
+        long statements = budget.measure("GET " + url, () -> header[0] = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(QueryCountHeaderConfig.HEADER));
+        assertEquals(Long.toString(statements), header[0]);
+    }
+
+    /**
+     * Дополняет базу данных пользователями, машинами и бронированиями, пока бронирований не станет
+     * не меньше указанного числа. На каждые пять бронирований приходится один пользователь и одна машина,
+     * каждое бронирование занимает свой день, поэтому конфликтов не бывает.
+     *
+     * @param rows Число бронирований
+     */
+    private void seed(int rows) {
+        if (bookings >= rows) {
+            return;
+        }
+        while (users.size() < Math.max(1, rows / 5)) {
+            int i = users.size();
+            users.add(userRepository.save(new User(null, "budget-user" + i, "hash", Role.CUSTOMER)));
+            cars.add(carService.addCar(new Car(null, "Brand" + i, "Model" + i, 2020, 50.0, true, 0)));
+        }
+        List<BookingDTO> added = new ArrayList<>();
+        for (int i = bookings; i < rows; i++) {
+            LocalDate day = ORIGIN.plusDays(i);
+            added.add(new BookingDTO(null, users.get(i % users.size()).getId(), cars.get(i % cars.size()).getId(), day, day));
+        }
+        bookingService.createBookings(added);
+        bookings = rows;
+    }
+}
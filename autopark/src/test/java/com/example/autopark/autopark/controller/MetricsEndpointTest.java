@@ -0,0 +1,105 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.example.autopark.autopark.service.BookingConflictException;
+import com.example.autopark.autopark.service.BookingService;
+import com.example.autopark.autopark.service.CarService;
+import com.example.autopark.autopark.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что эндпоинт /actuator/prometheus доступен только по логину и паролю Prometheus
+ * (JWT-токен, даже администратора, не подходит) и публикует
+ * задержки эндпоинтов, метрики бронирований, проверки JWT и пула соединений.
+ */
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "management.metrics.distribution.percentiles-histogram.autopark.jwt.validation=true",
+        "autopark.metrics.scrape-username=scraper",
+        "autopark.metrics.scrape-password=scrape-secret"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void prometheusEndpointPublishesServiceMetrics() throws Exception {
+        User user = userRepository.save(new User(null, "metrics-user", "x", Role.CUSTOMER));
+        Car car = carService.addCar(new Car(null, "Kia", "Rio", 2021, 40.0, true, 0));
+        LocalDate start = LocalDate.of(2031, 3, 1);
+        bookingService.createBooking(new BookingDTO(null, user.getId(), car.getId(), start, start.plusDays(2)));
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(
+                new BookingDTO(null, user.getId(), car.getId(), start.plusDays(1), start.plusDays(3))));
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking(
+                new BookingDTO(null, user.getId(), car.getId(), start.plusDays(3), start)));
+
+        String customer = "Bearer " + jwtService.generateToken(1L, "metrics-user", "CUSTOMER");
+        mockMvc.perform(get("/api/cars").header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isOk());
+        String admin = "Bearer " + jwtService.generateToken(2L, "metrics-admin", "ADMIN");
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, admin))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "wrong")))
+                .andExpect(status().isUnauthorized());
+        // Остальные эндпоинты Actuator по-прежнему доступны администратору
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, admin))
+                .andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertContains(metrics, "http_server_requests_seconds_bucket{");
+        assertContains(metrics, "uri=\"/api/cars\"");
+        assertContains(metrics, "autopark_booking_create_seconds_count{outcome=\"created\"");
+        assertContains(metrics, "autopark_booking_create_seconds_count{outcome=\"conflict\"");
+        assertContains(metrics, "autopark_booking_conflicts_total{reason=\"overlap\"");
+        assertContains(metrics, "autopark_booking_rejected_total");
+        assertContains(metrics, "autopark_jwt_validation_seconds_bucket{");
+        assertContains(metrics, "cache_gets_total{cache=\"jwt.claims\"");
+        assertContains(metrics, "hikaricp_connections_pending");
+        assertContains(metrics, "hikaricp_connections_active");
+    }
+
+    private static void assertContains(String metrics, String expected) {
+        assertTrue(metrics.contains(expected), "Нет метрики: " + expected);
+    }
+}
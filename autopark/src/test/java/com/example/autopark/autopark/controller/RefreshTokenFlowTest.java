@@ -0,0 +1,76 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет обмен refresh-токена: новый access-токен выдается без пароля,
+ * а использованный refresh-токен повторно не принимается.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenFlowTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void refreshRotatesToken() throws Exception {
+        userRepository.save(new User(null, "refresh-user", passwordEncoder.encode("secret"), Role.CUSTOMER));
+
+        MvcResult login = mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"refresh-user\",\"password\":\"secret\"}"))
+                .andReturn();
+        JsonNode tokens = objectMapper.readTree(mockMvc.perform(asyncDispatch(login))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String refreshToken = tokens.get("refreshToken").asText();
+
+        JsonNode refreshed = objectMapper.readTree(mockMvc.perform(refresh(refreshToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertNotEquals(refreshToken, refreshed.get("refreshToken").asText());
+        // Новый токен сохраняет ID пользователя: собственные бронирования доступны
+        mockMvc.perform(get("/api/bookings/user/" + tokens.get("id").asLong())
+                        .header("Authorization", "Bearer " + refreshed.get("token").asText()))
+                .andExpect(status().isOk());
+
+        // Использованный токен недействителен, новый — действителен
+        mockMvc.perform(refresh(refreshToken)).andExpect(status().isUnauthorized());
+        mockMvc.perform(refresh(refreshed.get("refreshToken").asText())).andExpect(status().isOk());
+        mockMvc.perform(refresh("unknown")).andExpect(status().isUnauthorized());
+    }
+
+    private RequestBuilder refresh(String refreshToken) {
+        return post("/api/users/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}");
+    }
+}
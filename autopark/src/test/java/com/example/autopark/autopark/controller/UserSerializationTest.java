@@ -0,0 +1,63 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что хеш пароля принимается при создании пользователя, но не попадает ни в один
+ * ответ со списком пользователей: полный список, страницу и потоковую выдачу.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserSerializationTest {
+
+    private static final String HASH = "$2a$10$serializationtesthashvalue";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void passwordHashIsNeverSerialized() throws Exception {
+        userRepository.save(new User(null, "serialization-user", HASH, Role.CUSTOMER));
+
+        assertNoPassword(mockMvc.perform(get("/api/users")).andExpect(status().isOk()).andReturn());
+        assertNoPassword(mockMvc.perform(get("/api/users").param("limit", "100")).andExpect(status().isOk()).andReturn());
+        MvcResult stream = mockMvc.perform(get("/api/users").param("stream", "true")).andReturn();
+        assertNoPassword(mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk()).andReturn());
+
+        // Пароль из тела запроса по-прежнему принимается при создании
+        MvcResult created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"serialization-created\",\"password\":\"" + HASH + "\",\"role\":\"CUSTOMER\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNoPassword(created);
+        assertEquals(HASH, userRepository.findByUsername("serialization-created").orElseThrow().getPassword());
+    }
+
+    private static void assertNoPassword(MvcResult result) throws Exception {
+        String body = result.getResponse().getContentAsString();
+        assertFalse(body.contains("password"), body);
+        assertFalse(body.contains(HASH), body);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.autopark.autopark.controller;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Сравнивает размер ответов списков из 10 000 строк в JSON и CBOR.
+ * Время сериализации и разбора обоих форматов измеряется бенчмарком JacksonSerializationBenchmark (профиль jmh).
+ * Использует отдельную базу данных, чтобы большой автопарк не попадал в индексы других тестов.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:wire_format_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class WireFormatSizeTest {
+
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final CBORMapper cborMapper = (CBORMapper) new CBORMapper().registerModule(new JavaTimeModule());
+
+    @BeforeEach
+    void setUp() {
+        if (jdbcTemplate.queryForObject("select count(*) from cars", Integer.class) >= ROWS) {
+            return;
+        }
+        jdbcTemplate.update("insert into users (id, username, password, role) values (1, 'wire', 'x', 'CUSTOMER')");
+        List<Object[]> cars = new ArrayList<>(ROWS);
+        List<Object[]> bookings = new ArrayList<>(ROWS);
+        LocalDate origin = LocalDate.of(2025, 1, 1);
+        for (int i = 1; i <= ROWS; i++) {
+            cars.add(new Object[]{i, "Brand" + (i % 20), "Model" + (i % 200), 2000 + i % 25, 30.0 + i % 70, true, 0});
+            LocalDate start = origin.plusDays(i % 365);
+            bookings.add(new Object[]{i, 1, i, Date.valueOf(start), Date.valueOf(start.plusDays(i % 7))});
+        }
+        jdbcTemplate.batchUpdate("insert into cars (id, brand, model, year, price_per_day, available, version) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", cars);
+        jdbcTemplate.batchUpdate("insert into bookings (id, user_id, car_id, start_date, end_date) "
+                + "values (?, ?, ?, ?, ?)", bookings);
+    }
+
+    @Test
+    void cborIsSmallerThanJson() throws Exception {
+        compare("/api/cars", new TypeReference<List<Car>>() {});
+        compare("/api/bookings", new TypeReference<List<BookingDTO>>() {});
+    }
+
+    private <T> void compare(String url, TypeReference<List<T>> type) throws Exception {
+        byte[] json = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(ROWS, jsonMapper.readValue(json, type).size());
+        assertEquals(ROWS, cborMapper.readValue(cbor, type).size());
+        assertTrue(cbor.length < json.length, "CBOR должен быть компактнее JSON");
+    }
+}
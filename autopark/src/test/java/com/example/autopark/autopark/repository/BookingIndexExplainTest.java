@@ -0,0 +1,53 @@
+package com.example.autopark.autopark.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по плану выполнения (EXPLAIN), что частые запросы бронирований используют индексы,
+ * созданные миграциями: проверка пересечения периодов — idx_bookings_car_dates,
+ * поиск бронирований пользователя — idx_bookings_user. Для поиска бронирований машины только по car_id
+ * индекс idx_bookings_car_dates равноценен индексу внешнего ключа, поэтому проверяется только отсутствие
+ * полного просмотра таблицы.
+ * Тексты запросов повторяют SQL, который Hibernate строит для запросов BookingRepository.
+ */
+@SpringBootTest
+class BookingIndexExplainTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingsByCarUseIndexOnCar() {
+        String plan = explain("select b.id, b.user_id, b.car_id, b.start_date, b.end_date from bookings b where b.car_id = 1");
+        assertTrue(!plan.contains("tablescan") && plan.contains("car_id = "),
+                "Запрос должен искать бронирования по индексу на car_id, план: " + plan);
+    }
+
+    @Test
+    void overlapCheckUsesCarDatesIndex() {
+        assertUsesIndex("idx_bookings_car_dates",
+                "select count(b.id) > 0 from bookings b where b.car_id = 1"
+                        + " and b.start_date <= date '2030-01-05' and b.end_date >= date '2030-01-01'");
+    }
+
+    @Test
+    void bookingsByUserUseUserIndex() {
+        assertUsesIndex("idx_bookings_user",
+                "select b.id, b.user_id, b.car_id, b.start_date, b.end_date from bookings b where b.user_id = 1");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.contains("/* public." + index + ":"),
+                "Запрос должен использовать индекс " + index + ", план: " + plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toLowerCase();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.autopark.autopark.repository;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.service.BookingService;
+import db.migration.V1_1__UpgradeHibernateSchema;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет обновление базы данных, схему которой создал Hibernate до перехода на Flyway:
+ * база отмечается как версия 1, V1_1 добавляет столбец версии машины, генератор ID бронирований
+ * выше существующих ID и таблицу refresh-токенов, после чего проходят остальные миграции
+ * и проверка схемы Hibernate (ddl-auto=validate). Повторное выполнение V1_1 ничего не меняет.
+ */
+@SpringBootTest
+class LegacySchemaMigrationTest {
+
+    private static final String URL =
+            "jdbc:h2:mem:legacy_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookingService bookingService;
+
+    /**
+     * Создает старую схему до запуска приложения, чтобы Flyway обновил ее при старте.
+     */
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) {
+        new ResourceDatabasePopulator(new ClassPathResource("db/legacy/hibernate_schema.sql"))
+                .execute(new DriverManagerDataSource(URL, "sa", ""));
+        registry.add("spring.datasource.url", () -> URL);
+        registry.add("spring.flyway.baseline-on-migrate", () -> "true");
+        registry.add("spring.flyway.baseline-version", () -> "1");
+    }
+
+    @Test
+    void upgradesHibernateSchema() throws Exception {
+        assertEquals(List.of("1", "1.1", "2", "3"), jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"success\" and \"version\" is not null order by \"installed_rank\"",
+                String.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("select version from cars where id = 1", Long.class));
+        assertEquals(43L, jdbcTemplate.queryForObject(
+                "select next_val from id_generators where sequence_name = 'bookings'", Long.class));
+
+        // Новое бронирование получает ID выше бронирований, созданных через AUTO_INCREMENT
+        bookingService.createBooking(new BookingDTO(null, 1L, 1L, LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 2)));
+        assertTrue(bookingService.getBookingsByCar(1L).stream().allMatch(booking -> booking.getId() >= 42));
+        assertEquals(2, bookingService.getBookingsByCar(1L).size());
+
+        try (Connection connection = dataSource.getConnection()) {
+            new V1_1__UpgradeHibernateSchema().migrate(new Context() {
+                @Override
+                public Configuration getConfiguration() {
+                    return null;
+                }
+
+                @Override
+                public Connection getConnection() {
+                    return connection;
+                }
+            });
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where index_name = 'idx_refresh_tokens_expires_at'",
+                Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from id_generators", Integer.class));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.autopark.autopark.security;
+
+import com.example.autopark.autopark.service.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет правила доступа цепочки фильтров безопасности и то, что аутентификация по токену
+ * не обращается к базе данных. Запрос выполняется к поиску свободных машин, который обслуживается
+ * из индекса в памяти, поэтому любой SQL-запрос означает обращение к базе данных из фильтра.
+ * Накладные расходы фильтра измеряются бенчмарком JwtAuthenticationFilterBenchmark (профиль jmh).
+ */
+@SpringBootTest
+class JwtAuthenticationTest {
+
+    private static final int REQUESTS = 20;
+    private static final String AVAILABLE_CARS = "/api/cars/available?from=2025-06-01&to=2025-06-07";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+    private String customerToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        customerToken = "Bearer " + jwtService.generateToken(1L, "customer", "CUSTOMER");
+        adminToken = "Bearer " + jwtService.generateToken(2L, "admin", "ADMIN");
+    }
+
+    @Test
+    void enforcesRoleRules() throws Exception {
+        mockMvc.perform(get(AVAILABLE_CARS)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get(AVAILABLE_CARS).header("Authorization", "Bearer invalid"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(AVAILABLE_CARS).header("Authorization", customerToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users").header("Authorization", customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/1").header("Authorization", customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/search").param("username", "admin").header("Authorization", customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/bookings").header("Authorization", customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/cars/1").header("Authorization", customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users").header("Authorization", adminToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void filterAddsNoDatabaseAccess() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get(AVAILABLE_CARS).header("Authorization", customerToken)).andExpect(status().isOk());
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount(),
+                "Аутентификация по токену не должна обращаться к базе данных");
+    }
+}
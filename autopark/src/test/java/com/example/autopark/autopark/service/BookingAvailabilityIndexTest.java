@@ -0,0 +1,83 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет индекс занятости на пересекающихся бронированиях, которые могут остаться в базе данных
+ * от записей, созданных до появления индекса: вложенные интервалы и интервалы с одной датой начала.
+ */
+class BookingAvailabilityIndexTest {
+
+    private static final long CAR_ID = 1L;
+
+    private CarOccupancyIndex occupancyIndex;
+    private BookingAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        occupancyIndex = new CarOccupancyIndex(null);
+        occupancyIndex.putCar(new Car(CAR_ID, "Test", "Nested", 2020, 10.0, true, 0));
+        index = new BookingAvailabilityIndex(null, occupancyIndex);
+    }
+
+    @Test
+    void nestedIntervalKeepsOuterBookingBusy() {
+        index.add(1L, CAR_ID, day(1), day(10));
+        index.add(2L, CAR_ID, day(3), day(4));
+        assertFalse(isFree(6, 7));
+
+        // Отмена вложенного бронирования не освобождает дни внешнего
+        index.remove(2L);
+        assertFalse(isFree(3, 4));
+        assertFalse(isFree(6, 7));
+
+        index.remove(1L);
+        assertTrue(isFree(1, 10));
+    }
+
+    @Test
+    void intervalsWithSameStartAreBothKept() {
+        index.add(1L, CAR_ID, day(1), day(10));
+        index.add(2L, CAR_ID, day(1), day(3));
+
+        index.remove(1L);
+        assertFalse(isFree(2, 2));
+        assertTrue(isFree(5, 6));
+
+        index.remove(2L);
+        assertTrue(isFree(1, 10));
+    }
+
+    @Test
+    void removingOuterIntervalKeepsChainedOverlaps() {
+        index.add(1L, CAR_ID, day(1), day(20));
+        index.add(2L, CAR_ID, day(2), day(5));
+        index.add(3L, CAR_ID, day(4), day(8));
+        index.add(4L, CAR_ID, day(15), day(16));
+
+        index.remove(1L);
+        assertFalse(isFree(7, 7));
+        assertTrue(isFree(9, 14));
+        assertFalse(isFree(16, 18));
+        assertTrue(isFree(17, 20));
+    }
+
+    private boolean isFree(int from, int to) {
+        boolean free = index.isFree(CAR_ID, day(from), day(to));
+        // Посуточный индекс должен совпадать с индексом интервалов
+        boolean freeByDay = !occupancyIndex.findFree(day(from), day(to)).isEmpty();
+        assertTrue(free == freeByDay, "Индексы расходятся на периоде " + from + ".." + to);
+        return free;
+    }
+
+    private static LocalDate day(int day) {
+        return LocalDate.of(2030, 1, day);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет создание бронирований BookingService при одновременных запросах к нескольким машинам:
+ * каждые две попытки претендуют на одни и те же даты, поэтому часть из них конфликтует.
+ * Ни одна машина не должна быть забронирована дважды на пересекающиеся даты, а каждая попытка
+ * должна завершиться либо созданием бронирования, либо конфликтом.
+ * Пропускная способность измеряется бенчмарком BookingContentionBenchmark (профиль jmh).
+ * Использует отдельную базу данных, чтобы машины и бронирования не попадали в индексы других тестов.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:contention_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+class BookingContentionTest {
+
+    // Меньше половины пула соединений: транзакция бронирования берет еще одно соединение для выделения ID
+    private static final int WRITERS = 4;
+    private static final int ATTEMPTS_PER_WRITER = 50;
+    private static final int CARS = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        Long userId = userRepository.save(new User(null, "contention-user", "hash", Role.CUSTOMER)).getId();
+        List<Long> carIds = new ArrayList<>();
+        for (int i = 0; i < CARS; i++) {
+            carIds.add(carService.addCar(new Car(null, "Contention", "Model" + i, 2021, 30.0, true, 0)).getId());
+        }
+        LocalDate origin = LocalDate.of(2036, 1, 1);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            futures.add(writers.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_WRITER; i++) {
+                    int attempt = attempts.getAndIncrement();
+                    Long carId = carIds.get(attempt % CARS);
+                    LocalDate startDate = origin.plusDays(attempt / (2L * CARS));
+                    try {
+                        bookingService.createBooking(new BookingDTO(null, userId, carId, startDate,
+                                startDate.plusDays(attempt % 2)));
+                        created.incrementAndGet();
+                    } catch (BookingConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        writers.shutdown();
+
+        assertEquals(WRITERS * ATTEMPTS_PER_WRITER, created.get() + conflicts.get());
+        assertTrue(conflicts.get() > 0, "Попытки на одни и те же даты должны конфликтовать");
+        int stored = 0;
+        for (Long carId : carIds) {
+            List<BookingDTO> bookings = new ArrayList<>(bookingService.getBookingsByCar(carId));
+            bookings.sort(Comparator.comparing(BookingDTO::getStartDate));
+            for (int i = 1; i < bookings.size(); i++) {
+                assertTrue(bookings.get(i - 1).getEndDate().isBefore(bookings.get(i).getStartDate()),
+                        "Пересекающиеся бронирования машины " + carId);
+            }
+            stored += bookings.size();
+        }
+        assertEquals(created.get(), stored);
+    }
+}
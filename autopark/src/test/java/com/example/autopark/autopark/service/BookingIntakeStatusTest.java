@@ -0,0 +1,75 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.BookingDTO;
+import com.example.autopark.autopark.entity.BookingRequestStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет хранение состояний запросов приема бронирований: состояние запроса в очереди не истекает,
+ * сколько бы он ни ждал, а состояние обработанного запроса удаляется через status-ttl.
+ */
+class BookingIntakeStatusTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+    private static final Duration TTL = Duration.ofMillis(100);
+
+    @Test
+    void keepsQueuedStatusAndExpiresProcessedOne() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        // Обработка ждет открытия шлюза, поэтому запрос остается в очереди дольше status-ttl
+        BookingService bookingService = new BookingService() {
+            @Override
+            public List<GroupResult> createCarGroup(Long carId, List<BookingDTO> requests) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return requests.stream().map(request -> new GroupResult(request, null)).toList();
+            }
+        };
+        ReflectionTestUtils.setField(bookingService, "maxDays", 366);
+        BookingIntakeService intake = new BookingIntakeService();
+        ReflectionTestUtils.setField(intake, "bookingService", bookingService);
+        ReflectionTestUtils.setField(intake, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(intake, "capacity", 10);
+        ReflectionTestUtils.setField(intake, "workerCount", 1);
+        ReflectionTestUtils.setField(intake, "maxDrain", 10);
+        ReflectionTestUtils.setField(intake, "statusTtl", TTL);
+        intake.start();
+        try {
+            String requestId = intake.submit(new BookingDTO(null, 1L, 1L, DAY, DAY)).getRequestId();
+            Thread.sleep(TTL.toMillis() * 3);
+            intake.purgeExpiredStatuses();
+            assertEquals(BookingRequestStatus.PENDING, intake.status(requestId).orElseThrow().getStatus());
+
+            gate.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (intake.status(requestId).orElseThrow().getStatus().equals(BookingRequestStatus.PENDING)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(BookingRequestStatus.CREATED, intake.status(requestId).orElseThrow().getStatus());
+
+            Thread.sleep(TTL.toMillis() * 3);
+            assertTrue(intake.status(requestId).isEmpty());
+            intake.purgeExpiredStatuses();
+            assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(intake, "statuses")).isEmpty());
+        } finally {
+            gate.countDown();
+            intake.stop();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.BookingRequestStatus;
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import com.example.autopark.autopark.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет асинхронный прием бронирований: ответ 202 с адресом состояния и детерминированное разрешение
+ * пересечений в порядке поступления.
+ * Пропускная способность по сравнению с синхронным созданием измеряется бенчмарком BookingIntakeBenchmark
+ * (профиль jmh).
+ * Использует отдельную базу данных, чтобы машины и бронирования не попадали в индексы других тестов.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:intake_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+// Бронирования создаются на пользователей из тела запроса, что разрешено только администратору
+@WithMockUser(roles = "ADMIN")
+class BookingIntakeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingIntakeService bookingIntakeService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void resolvesOverlapsInArrivalOrder() throws Exception {
+        Long userId = userRepository.save(new User(null, "intake-user", "hash", Role.CUSTOMER)).getId();
+        long carId = carService.addCar(new Car(null, "Intake", "Model", 2022, 50.0, true, 0)).getId();
+        String first = submit(userId, carId, "2031-05-01", "2031-05-03");
+        String overlapping = submit(userId, carId, "2031-05-02", "2031-05-04");
+        String after = submit(userId, carId, "2031-05-04", "2031-05-05");
+
+        assertEquals(BookingRequestStatus.CREATED, await(first).getStatus());
+        assertEquals(BookingRequestStatus.CONFLICT, await(overlapping).getStatus());
+        assertEquals(BookingRequestStatus.CREATED, await(after).getStatus());
+        mockMvc.perform(get("/api/bookings/requests/" + overlapping))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFLICT"))
+                .andExpect(jsonPath("$.message").value("Машина уже забронирована на выбранные даты"));
+        mockMvc.perform(get("/api/bookings/requests/unknown")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/bookings").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"carId\":" + carId
+                                + ",\"startDate\":\"2031-06-02\",\"endDate\":\"2031-06-01\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsUnknownUserWithoutBlockingLaterRequests() throws Exception {
+        Long userId = userRepository.save(new User(null, "intake-known-user", "hash", Role.CUSTOMER)).getId();
+        long carId = carService.addCar(new Car(null, "Intake", "Model", 2022, 50.0, true, 0)).getId();
+        String unknownUser = submit(Long.MAX_VALUE, carId, "2031-07-01", "2031-07-03");
+        String overlapping = submit(userId, carId, "2031-07-02", "2031-07-04");
+
+        BookingRequestStatus rejected = await(unknownUser);
+        assertEquals(BookingRequestStatus.REJECTED, rejected.getStatus());
+        assertEquals("Пользователь не найден: " + Long.MAX_VALUE, rejected.getMessage());
+        assertEquals(BookingRequestStatus.CREATED, await(overlapping).getStatus());
+    }
+
+    private String submit(Long userId, long carId, String from, String to) throws Exception {
+        String location = mockMvc.perform(post("/api/bookings").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"carId\":" + carId
+                                + ",\"startDate\":\"" + from + "\",\"endDate\":\"" + to + "\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getHeader("Location");
+        return location.substring(location.lastIndexOf('/') + 1);
+    }
+
+    private BookingRequestStatus await(String requestId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < deadline) {
+            BookingRequestStatus status = bookingIntakeService.status(requestId).orElseThrow();
+            if (!status.getStatus().equals(BookingRequestStatus.PENDING)) {
+                return status;
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("Запрос " + requestId + " не обработан");
+    }
+}
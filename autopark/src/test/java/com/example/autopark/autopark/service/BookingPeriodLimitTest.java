@@ -0,0 +1,46 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет ограничение длины бронирования и периода поиска свободных машин:
+ * каждый день периода перебирается и хранится в посуточном индексе занятости.
+ */
+class BookingPeriodLimitTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void rejectsBookingLongerThanLimit() {
+        BookingService service = new BookingService();
+        ReflectionTestUtils.setField(service, "maxDays", 366);
+
+        assertDoesNotThrow(() -> service.checkPeriod(FROM, FROM.plusDays(365)));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.checkPeriod(FROM, FROM.plusDays(366)));
+        assertEquals("Период бронирования не может быть длиннее 366 суток", e.getMessage());
+        assertThrows(RuntimeException.class,
+                () -> service.checkPeriod(LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31)));
+        assertThrows(RuntimeException.class, () -> service.checkPeriod(FROM, FROM.minusDays(1)));
+    }
+
+    @Test
+    void rejectsAvailabilitySearchLongerThanLimit() {
+        CarOccupancyIndex occupancyIndex = new CarOccupancyIndex(null);
+        occupancyIndex.putCar(new Car(1L, "Kia", "Rio", 2020, 40.0, true, 0));
+        CarService service = new CarService();
+        ReflectionTestUtils.setField(service, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(service, "maxBookingDays", 366);
+
+        assertEquals(1, service.getAvailableCars(FROM, FROM.plusDays(365)).size());
+        assertThrows(RuntimeException.class,
+                () -> service.getAvailableCars(LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.autopark.autopark.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Проверяет округление числа блокировок до степени двойки, включая одну блокировку на все машины.
+ */
+class CarLockStripesTest {
+
+    @Test
+    void roundsStripesUpToPowerOfTwo() {
+        assertEquals(1, distinctLocks(new CarLockStripes(1)));
+        assertEquals(1, distinctLocks(new CarLockStripes(0)));
+        assertEquals(2, distinctLocks(new CarLockStripes(2)));
+        assertEquals(4, distinctLocks(new CarLockStripes(3)));
+        assertEquals(1024, distinctLocks(new CarLockStripes(1000)));
+
+        CarLockStripes single = new CarLockStripes(1);
+        assertSame(single.forCar(1L), single.forCar(2L));
+    }
+
+    /**
+     * Число различных блокировок, на которые распределяются 100 000 машин.
+     */
+    private static int distinctLocks(CarLockStripes stripes) {
+        List<Long> carIds = LongStream.rangeClosed(1, 100_000).boxed().toList();
+        return stripes.forCars(carIds).size();
+    }
+}
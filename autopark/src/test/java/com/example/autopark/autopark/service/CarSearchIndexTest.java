@@ -0,0 +1,116 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.CarSearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет фильтры и фасеты поиска машин, обновление индекса при изменении и удалении машин,
+ * порядок цен и поиск по автопарку из 100 000 машин.
+ * Время поиска измеряется бенчмарком CarSearchIndexBenchmark (профиль jmh).
+ */
+class CarSearchIndexTest {
+
+    @Test
+    void filtersAndCountsFacetsWithoutOwnFilter() {
+        CarSearchIndex index = new CarSearchIndex(null, 50);
+        index.putCar(new Car(1L, "BMW", "X5", 2022, 120.0, true, 0));
+        index.putCar(new Car(2L, "BMW", "X3", 2019, 90.0, true, 0));
+        index.putCar(new Car(3L, "Kia", "Rio", 2020, 40.0, true, 0));
+        index.putCar(new Car(4L, "Kia", "Rio", 2015, 30.0, false, 0));
+        index.putCar(new Car(5L, "Lada", "Vesta", 2021, 25.0, true, 0));
+
+        CarSearchResult result = index.search(new CarSearchIndex.Query(
+                List.of("BMW", "Kia"), null, 2018, null, null, 100.0, null, 10));
+        assertEquals(List.of(3L, 2L), result.getCars().stream().map(Car::getId).toList());
+        assertEquals(2, result.getTotal());
+        // Фасет марок не учитывает фильтр по марке, но учитывает год и цену
+        assertEquals(Map.of("BMW", 1, "Kia", 1, "Lada", 1), result.getBrands());
+        assertEquals(Map.of("X3", 1, "Rio", 1), result.getModels());
+        assertEquals(Map.of(2015, 1, 2019, 1, 2020, 1), result.getYears());
+        assertEquals(Map.of("0-50", 1, "50-100", 1, "100-150", 1), result.getPrices());
+
+        // Изменение и удаление машин сразу отражаются в поиске
+        index.putCar(new Car(3L, "Kia", "Ceed", 2020, 45.0, true, 1));
+        index.removeCar(2L);
+        result = index.search(new CarSearchIndex.Query(List.of("Kia"), null, null, null, null, null, true, 10));
+        assertEquals(List.of(3L), result.getCars().stream().map(Car::getId).toList());
+        assertEquals(Map.of("Ceed", 1), result.getModels());
+        assertEquals(Map.of("BMW", 1, "Kia", 1, "Lada", 1), result.getBrands());
+    }
+
+    @Test
+    void ordersPricesByExactValue() {
+        CarSearchIndex index = new CarSearchIndex(null, 50);
+        index.putCar(new Car(1L, "Kia", "Rio", 2020, 10.004, true, 0));
+        index.putCar(new Car(2L, "Kia", "Rio", 2020, 10.001, true, 0));
+        index.putCar(new Car(3L, "BMW", "X5", 2022, 9e9, true, 0));
+        index.putCar(new Car(4L, "BMW", "X3", 2022, 6e9, true, 0));
+        index.putCar(new Car(5L, "Lada", "Vesta", 2021, 0.0, true, 0));
+
+        CarSearchResult result = index.search(new CarSearchIndex.Query(null, null, null, null, null, null, null, 10));
+        assertEquals(List.of(5L, 2L, 1L, 4L, 3L), result.getCars().stream().map(Car::getId).toList());
+        result = index.search(new CarSearchIndex.Query(null, null, null, null, 10.002, 7e9, null, 10));
+        assertEquals(List.of(1L, 4L), result.getCars().stream().map(Car::getId).toList());
+        assertEquals(2, result.getTotal());
+    }
+
+    @Test
+    void failedPriceRebuildReleasesLock() {
+        CarSearchIndex index = new CarSearchIndex(null, 50);
+        AtomicInteger reads = new AtomicInteger();
+        // Цена читается при добавлении в индекс, а при перестройке массива цен чтение падает
+        index.putCar(new Car(1L, "Kia", "Rio", 2020, 40.0, true, 0) {
+            @Override
+            public double getPricePerDay() {
+                if (reads.incrementAndGet() > 1) {
+                    throw new IllegalStateException("Цена недоступна");
+                }
+                return super.getPricePerDay();
+            }
+        });
+        CarSearchIndex.Query all = new CarSearchIndex.Query(null, null, null, null, null, null, null, 10);
+
+        assertThrows(IllegalStateException.class, () -> index.search(all));
+        // Блокировки не остались взятыми: запись и поиск снова проходят
+        index.removeCar(1L);
+        index.putCar(new Car(2L, "Lada", "Vesta", 2021, 25.0, true, 0));
+        assertEquals(List.of(2L), index.search(all).getCars().stream().map(Car::getId).toList());
+    }
+
+    @Test
+    void searchesLargeFleet() {
+        CarSearchIndex index = new CarSearchIndex(null, 50);
+        for (long id = 1; id <= 100_000; id++) {
+            int i = (int) id;
+            index.putCar(new Car(id, "Brand" + i % 40, "Model" + i % 800, 2000 + i % 25, 20 + i % 280, i % 10 != 0, 0));
+        }
+        CarSearchResult result = index.search(
+                new CarSearchIndex.Query(List.of("Brand7"), null, 2010, 2020, 50.0, 150.0, true, 20));
+
+        // Фасет марок считается по всем фильтрам, кроме фильтра по марке
+        Map<String, Integer> brands = new HashMap<>();
+        for (int i = 1; i <= 100_000; i++) {
+            int year = 2000 + i % 25;
+            int price = 20 + i % 280;
+            if (year >= 2010 && year <= 2020 && price >= 50 && price <= 150 && i % 10 != 0) {
+                brands.merge("Brand" + i % 40, 1, Integer::sum);
+            }
+        }
+        assertEquals(brands.get("Brand7"), result.getTotal());
+        assertEquals(brands, result.getBrands());
+        assertEquals(20, result.getCars().size());
+        for (int i = 1; i < result.getCars().size(); i++) {
+            assertTrue(result.getCars().get(i - 1).getPricePerDay() <= result.getCars().get(i).getPricePerDay());
+        }
+    }
+}
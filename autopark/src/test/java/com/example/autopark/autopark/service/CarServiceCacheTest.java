@@ -0,0 +1,84 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет кэш машин: одновременные обращения к холодному ключу выполняют один запрос,
+ * а изменения машины сбрасывают её запись и списки каталога. Машина с заданным ID не создается.
+ */
+@SpringBootTest
+class CarServiceCacheTest {
+
+    private static final int CALLERS = 32;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void coldKeyIsLoadedOnce() throws Exception {
+        Car car = carService.addCar(new Car(null, "Lada", "Vesta", 2022, 40.0, true, 0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Car>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Callable<Optional<Car>> call = () -> {
+                start.await();
+                return carService.getCarById(car.getId());
+            };
+            results.add(callers.submit(call));
+        }
+        start.countDown();
+        for (Future<Optional<Car>> result : results) {
+            assertEquals("Vesta", result.get().orElseThrow().getModel());
+        }
+        callers.shutdown();
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "Холодный ключ должен загружаться одним запросом");
+    }
+
+    @Test
+    void writesInvalidateAffectedEntries() {
+        Car car = carService.addCar(new Car(null, "Kia", "Rio", 2021, 35.0, true, 0));
+        assertTrue(carService.getAvailableCars().stream().anyMatch(c -> c.getId().equals(car.getId())));
+        assertEquals("Rio", carService.getCarById(car.getId()).orElseThrow().getModel());
+
+        car.setModel("Ceed");
+        car.setAvailable(false);
+        carService.updateCar(car);
+        assertEquals("Ceed", carService.getCarById(car.getId()).orElseThrow().getModel());
+        assertTrue(carService.getAvailableCars().stream().noneMatch(c -> c.getId().equals(car.getId())));
+
+        carService.deleteCar(car.getId());
+        assertTrue(carService.getCarById(car.getId()).isEmpty());
+        assertTrue(carService.getAllCars().stream().noneMatch(c -> c.getId().equals(car.getId())));
+
+        // Создание с существующим ID не перезаписывает машину
+        assertThrows(RuntimeException.class, () -> carService.addCar(new Car(car.getId(), "Kia", "Rio", 2021, 35.0, true, 0)));
+        assertTrue(carService.getCarById(car.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.OccupancyReportRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет отчет о занятости по машинам, маркам и дням
+ * и его обновление при создании и отмене бронирований через индекс доступности.
+ */
+class OccupancyReportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 3, 1);
+
+    @Test
+    void groupsOccupancyByCarBrandAndDay() {
+        CarOccupancyIndex occupancyIndex = new CarOccupancyIndex(null);
+        occupancyIndex.putCar(new Car(1L, "BMW", "X5", 2022, 120.0, true, 0));
+        occupancyIndex.putCar(new Car(2L, "BMW", "X3", 2021, 90.0, true, 0));
+        occupancyIndex.putCar(new Car(3L, "Kia", "Rio", 2020, 40.0, true, 0));
+        BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex(null, occupancyIndex);
+        availabilityIndex.add(10L, 1L, FROM, FROM.plusDays(1));            // 2 суток в периоде
+        availabilityIndex.add(11L, 3L, FROM.plusDays(3), FROM.plusDays(9)); // 1 сутки в периоде
+        availabilityIndex.add(12L, 2L, FROM.minusDays(30), FROM.minusDays(20)); // Вне периода
+        OccupancyReportService service = service(occupancyIndex);
+
+        List<OccupancyReportRow> byBrand = service.occupancy(FROM, FROM.plusDays(3), OccupancyReportService.GroupBy.BRAND);
+        assertEquals(List.of("BMW", "Kia"), byBrand.stream().map(OccupancyReportRow::getGroup).toList());
+        assertEquals(2, byBrand.get(0).getCars());
+        assertEquals(2, byBrand.get(0).getOccupiedCarDays());
+        assertEquals(8, byBrand.get(0).getTotalCarDays());
+        assertEquals(0.25, byBrand.get(0).getOccupancy(), 1e-9);
+        assertEquals(1, byBrand.get(1).getOccupiedCarDays());
+
+        List<OccupancyReportRow> byDay = service.occupancy(FROM, FROM.plusDays(3), OccupancyReportService.GroupBy.DAY);
+        assertEquals(List.of(1L, 1L, 0L, 1L), byDay.stream().map(OccupancyReportRow::getOccupiedCarDays).toList());
+        assertEquals(FROM.toString(), byDay.get(0).getGroup());
+        assertEquals(3, byDay.get(0).getTotalCarDays());
+
+        // Отмена бронирования сразу отражается в отчете
+        availabilityIndex.remove(10L);
+        List<OccupancyReportRow> byCar = service.occupancy(FROM, FROM.plusDays(3), OccupancyReportService.GroupBy.CAR);
+        assertEquals(List.of("1", "2", "3"), byCar.stream().map(OccupancyReportRow::getGroup).toList());
+        assertEquals(List.of(0L, 0L, 1L), byCar.stream().map(OccupancyReportRow::getOccupiedCarDays).toList());
+    }
+
+    @Test
+    void rejectsInvalidPeriod() {
+        OccupancyReportService service = service(new CarOccupancyIndex(null));
+        assertThrows(RuntimeException.class,
+                () -> service.occupancy(FROM, FROM.minusDays(1), OccupancyReportService.GroupBy.DAY));
+        assertThrows(RuntimeException.class,
+                () -> service.occupancy(FROM, FROM.plusYears(2), OccupancyReportService.GroupBy.DAY));
+    }
+
+    private static OccupancyReportService service(CarOccupancyIndex occupancyIndex) {
+        OccupancyReportService service = new OccupancyReportService();
+        ReflectionTestUtils.setField(service, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(service, "maxDays", 366);
+        return service;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.autopark.autopark.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что пул хеширования паролей принимает не больше задач, чем потоков и мест в очереди,
+ * сразу отклоняет лишние задачи и публикует метрики очереди, отказов и времени хеширования.
+ */
+class PasswordHashingServiceTest {
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Кодировщик, который держит поток пула до сигнала, имитируя медленный BCrypt
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHashingService hashing = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 2);
+        try {
+            CompletableFuture<String> running = hashing.encode("a");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued1 = hashing.encode("b");
+            CompletableFuture<Boolean> queued2 = hashing.matches("c", "hash:c");
+
+            assertEquals(2.0, meterRegistry.get("autopark.password.hash.queue").gauge().value());
+            PasswordHashingRejectedException rejected =
+                    assertThrows(PasswordHashingRejectedException.class, () -> hashing.encode("d"));
+            assertTrue(rejected.getRetryAfterSeconds() >= 1);
+            assertEquals(1.0, meterRegistry.get("autopark.password.hash.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hash:b", queued1.get(5, TimeUnit.SECONDS));
+            assertTrue(queued2.get(5, TimeUnit.SECONDS));
+            assertEquals(2, meterRegistry.get("autopark.password.hash").tag("operation", "encode").timer().count());
+            assertEquals(1, meterRegistry.get("autopark.password.hash").tag("operation", "match").timer().count());
+        } finally {
+            release.countDown();
+            hashing.shutdown();
+        }
+    }
+}
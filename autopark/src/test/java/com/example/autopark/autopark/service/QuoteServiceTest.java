@@ -0,0 +1,90 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Car;
+import com.example.autopark.autopark.entity.QuoteDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет расчет стоимости аренды: скидки на выходные и за длительную аренду,
+ * исключение занятых машин и сортировку по стоимости, в том числе для большого автопарка.
+ * Время расчета измеряется бенчмарком QuoteServiceBenchmark (профиль jmh).
+ */
+class QuoteServiceTest {
+
+    // Понедельник
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Test
+    void multiplierAppliesWeekendAndLongRentalDiscounts() {
+        QuoteService service = service(new CarOccupancyIndex(null));
+        assertEquals(5.0, service.priceMultiplier(MONDAY, MONDAY.plusDays(4)), 1e-9);    // Пн–Пт
+        assertEquals(3.8, service.priceMultiplier(MONDAY.plusDays(4), MONDAY.plusDays(7)), 1e-9); // Пт–Пн
+        assertEquals(6.8 * 0.85, service.priceMultiplier(MONDAY, MONDAY.plusDays(6)), 1e-9);     // Неделя
+    }
+
+    @Test
+    void quotesFreeCarsSortedByPrice() {
+        CarOccupancyIndex index = new CarOccupancyIndex(null);
+        index.putCar(new Car(1L, "BMW", "X5", 2022, 120.0, true, 0));
+        index.putCar(new Car(2L, "Lada", "Vesta", 2021, 30.0, true, 0));
+        index.putCar(new Car(3L, "Kia", "Rio", 2020, 40.0, true, 0));
+        index.putCar(new Car(4L, "Skoda", "Octavia", 2019, 10.0, false, 0));
+        index.occupy(3L, MONDAY.plusDays(1), MONDAY.plusDays(1));
+
+        List<QuoteDTO> quotes = service(index).quote(MONDAY, MONDAY.plusDays(4), true);
+
+        assertEquals(List.of(2L, 1L), quotes.stream().map(QuoteDTO::getCarId).toList());
+        assertEquals(150.0, quotes.get(0).getTotalPrice(), 1e-9);
+        assertEquals(600.0, quotes.get(1).getTotalPrice(), 1e-9);
+        assertEquals(5, quotes.get(0).getDays());
+        assertThrows(RuntimeException.class, () -> service(index).quote(MONDAY, MONDAY.minusDays(1), true));
+    }
+
+    @Test
+    void quotesLargeFleet() {
+        int fleet = 10_000;
+        CarOccupancyIndex index = new CarOccupancyIndex(null);
+        for (long id = 1; id <= fleet; id++) {
+            index.putCar(new Car(id, "Brand", "Model", 2020, 20.0 + id % 500, true, 0));
+            if (id % 10 == 0) {
+                index.occupy(id, MONDAY.plusDays(3), MONDAY.plusDays(5));
+            }
+        }
+        List<QuoteDTO> quotes = service(index).quote(MONDAY, MONDAY.plusDays(9), true);
+
+        assertEquals(fleet - fleet / 10, quotes.size());
+        for (int i = 1; i < quotes.size(); i++) {
+            assertTrue(quotes.get(i - 1).getTotalPrice() <= quotes.get(i).getTotalPrice());
+        }
+    }
+
+    @Test
+    void sortsPricesTooLargeForPackedKey() {
+        CarOccupancyIndex index = new CarOccupancyIndex(null);
+        index.putCar(new Car(1L, "Bus", "Gold", 2024, 2e12, true, 0));
+        index.putCar(new Car(2L, "Bus", "Silver", 2024, 1e12, true, 0));
+        index.putCar(new Car(3L, "Kia", "Rio", 2020, 40.0, true, 0));
+
+        List<QuoteDTO> quotes = service(index).quote(MONDAY, MONDAY, true);
+
+        assertEquals(List.of(3L, 2L, 1L), quotes.stream().map(QuoteDTO::getCarId).toList());
+    }
+
+    private static QuoteService service(CarOccupancyIndex index) {
+        QuoteService service = new QuoteService();
+        ReflectionTestUtils.setField(service, "occupancyIndex", index);
+        ReflectionTestUtils.setField(service, "weekendDiscount", 0.1);
+        ReflectionTestUtils.setField(service, "longRentalDays", 7);
+        ReflectionTestUtils.setField(service, "longRentalDiscount", 0.15);
+        ReflectionTestUtils.setField(service, "maxDays", 366);
+        return service;
+    }
+}
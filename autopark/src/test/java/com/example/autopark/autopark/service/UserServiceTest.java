@@ -0,0 +1,59 @@
+package com.example.autopark.autopark.service;
+
+import com.example.autopark.autopark.entity.Role;
+import com.example.autopark.autopark.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что продолжения после проверки пароля (выдача refresh-токена и другая работа с базой данных)
+ * выполняются в пуле задач приложения, а не в пуле хеширования.
+ */
+class UserServiceTest {
+
+    @Test
+    void passwordCheckContinuesOnTaskExecutor() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // Кодировщик держит поток пула до сигнала, чтобы продолжение было добавлено до завершения проверки
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        PasswordHashingService hashing = new PasswordHashingService(blockingEncoder, new SimpleMeterRegistry(), 1, 2);
+        ExecutorService taskExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "app-task"));
+        try {
+            UserService userService = new UserService(null, hashing, taskExecutor);
+            CompletableFuture<String> thread = userService
+                    .checkPassword("secret", new User(1L, "user", "hash:secret", Role.CUSTOMER))
+                    .thenApply(matches -> Thread.currentThread().getName());
+            release.countDown();
+
+            assertEquals("app-task", thread.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            hashing.shutdown();
+            taskExecutor.shutdown();
+        }
+    }
+}
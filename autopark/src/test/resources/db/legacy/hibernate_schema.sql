@@ -0,0 +1,12 @@
+-- Схема MySQL, которую Hibernate (ddl-auto=update) создавал до перехода на Flyway,
+-- с данными, записанными до появления табличного генератора ID бронирований.
+create table bookings (end_date date, start_date date, car_id bigint, id bigint not null auto_increment, user_id bigint, primary key (id)) engine=InnoDB;
+create table cars (available bit not null, price_per_day float(53) not null, year integer not null, id bigint not null auto_increment, brand varchar(255), model varchar(255), primary key (id)) engine=InnoDB;
+create table users (id bigint not null auto_increment, password varchar(255) not null, role enum ('ADMIN','CUSTOMER'), username varchar(255) not null, primary key (id)) engine=InnoDB;
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table bookings add constraint FKrd9d5pbt5jl3dd4vh5s55ylrk foreign key (car_id) references cars (id);
+alter table bookings add constraint FKeyog2oic85xg7hsu2je2lx3s6 foreign key (user_id) references users (id);
+
+insert into users (id, username, password, role) values (1, 'legacy-user', 'hash', 'CUSTOMER');
+insert into cars (id, brand, model, year, price_per_day, available) values (1, 'Legacy', 'Sedan', 2019, 30, 1);
+insert into bookings (id, user_id, car_id, start_date, end_date) values (42, 1, 1, '2030-01-01', '2030-01-03');
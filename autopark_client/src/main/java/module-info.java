@@ -5,6 +5,7 @@ module org.example.autopark_client {
     requires org.json;
     requires com.fasterxml.jackson.databind;
     requires com.fasterxml.jackson.datatype.jsr310;
+    requires com.fasterxml.jackson.dataformat.cbor;
 
     opens org.example.autopark_client to javafx.fxml;
     exports org.example.autopark_client;
@@ -1,8 +1,6 @@
 package org.example.autopark_client.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,7 +11,6 @@ import org.example.autopark_client.dto.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.LocalDate;
@@ -29,18 +26,18 @@ import java.util.Optional;
 public class AdminController {
 
     private final String SERVER_URL = "http://localhost:8080"; // URL сервера
-    private final ServerService serverService = new ServerService(); // Сервис для работы с сервером
-    private final HttpClient httpClient = HttpClient.newHttpClient(); // HTTP клиент для отправки запросов
-    private final String token = serverService.getToken(); // Токен для аутентификации
+    private ServerService serverService; // Сервис для работы с сервером (с токеном вошедшего администратора)
     private MainController mainController; // Главный контроллер
 
     /**
-     * Устанавливает главный контроллер для взаимодействия между панелями.
+     * Устанавливает главный контроллер для взаимодействия между панелями
+     * и использует его сервис, в котором хранится токен вошедшего пользователя.
      *
      * @param mainController Главный контроллер
      */
     public void setMainController(MainController mainController) {
         this.mainController = mainController;
+        this.serverService = mainController.getServerService();
     }
 
     @FXML
@@ -228,14 +225,11 @@ public class AdminController {
      */
     public List<UserDTO> getUsers() {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI(SERVER_URL + "/api/users"))
-                    .header("Authorization", "Bearer " + token)
-                    .GET()
-                    .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(response.body(), new TypeReference<List<UserDTO>>() {
+                    .GET();
+            HttpResponse<byte[]> response = serverService.sendConditional(request);
+            return serverService.readList(response, new TypeReference<List<UserDTO>>() {
             });
         } catch (Exception e) {
             e.printStackTrace();
@@ -304,15 +298,11 @@ public class AdminController {
      */
     public List<BookingDTO> getBookings() {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI(SERVER_URL + "/api/bookings"))
-                    .header("Authorization", "Bearer " + token)
-                    .GET()
-                    .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            return mapper.readValue(response.body(), new TypeReference<List<BookingDTO>>() {
+                    .GET();
+            HttpResponse<byte[]> response = serverService.sendConditional(request);
+            return serverService.readList(response, new TypeReference<List<BookingDTO>>() {
             });
         } catch (Exception e) {
             e.printStackTrace();
@@ -337,14 +327,11 @@ public class AdminController {
      */
     public List<CarDTO> getCars() {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI(SERVER_URL + "/api/cars"))
-                    .header("Authorization", "Bearer " + token)
-                    .GET()
-                    .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(response.body(), new TypeReference<List<CarDTO>>() {
+                    .GET();
+            HttpResponse<byte[]> response = serverService.sendConditional(request);
+            return serverService.readList(response, new TypeReference<List<CarDTO>>() {
             });
         } catch (Exception e) {
             e.printStackTrace();
@@ -92,6 +92,15 @@ public class MainController {
         bookingEndDateColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleObjectProperty<>(cellData.getValue().getEndDate()));
     }
 
+    /**
+     * Возвращает сервис для работы с сервером, в котором хранится токен вошедшего пользователя.
+     *
+     * @return Сервис для работы с сервером
+     */
+    public ServerService getServerService() {
+        return serverService;
+    }
+
     /**
      * Переключает на админ-панель.
      * Загружает FXML-файл админ-панели и передает управление AdminController.
@@ -128,8 +137,8 @@ public class MainController {
         userType = serverService.login(username, password);
         if (userType != null) {
             loginErrorLabel.setText("");
-            // Получаем ID пользователя после успешного входа
-            userId = serverService.getUserId(username);
+            // ID пользователя возвращается сервером вместе с токеном
+            userId = serverService.getId();
             if (userId == null) {
                 showError("Не удалось получить ID пользователя.");
                 return;
@@ -177,6 +186,8 @@ public class MainController {
     @FXML
     private void handleLogout() {
         serverService.setToken(null); // Удаляем токен
+        serverService.setRefreshToken(null);
+        serverService.clearResponseCache();
         serverService.setId(null);
         toAdminPanelButton.setVisible(false);
         switchToLogin();
@@ -1,14 +1,20 @@
 package org.example.autopark_client.service;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
 
 import org.example.autopark_client.dto.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
 import javafx.scene.control.Alert;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
 /**
  * Сервис для взаимодействия с сервером.
@@ -19,8 +25,22 @@ public class ServerService {
 
     private final HttpClient httpClient = HttpClient.newHttpClient();
     private String token;
+    private String refreshToken;
     private Long id;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    // Последние ответы на GET-запросы с ETag, по URI запроса
+    private final Map<URI, CachedResponse> responseCache = new ConcurrentHashMap<>();
+
+    /**
+     * Сохраненный ответ сервера вместе с его ETag.
+     *
+     * @param etag     ETag ответа
+     * @param response Ответ сервера
+     */
+    private record CachedResponse(String etag, HttpResponse<byte[]> response) {
+    }
 
     /**
      * Конструктор класса ServerService.
@@ -29,6 +49,7 @@ public class ServerService {
     public ServerService() {
         // Регистрируем модуль JavaTimeModule
         objectMapper.registerModule(new JavaTimeModule());
+        cborMapper.registerModule(new JavaTimeModule());
     }
 
     /**
@@ -58,6 +79,15 @@ public class ServerService {
         return token;
     }
 
+    /**
+     * Устанавливает refresh-токен, по которому сервер выдает новый токен авторизации.
+     *
+     * @param refreshToken Refresh-токен
+     */
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     /**
      * Возвращает ID текущего пользователя.
      *
@@ -99,6 +129,7 @@ public class ServerService {
                 ObjectMapper objectMapper = new ObjectMapper();
                 JsonNode root = objectMapper.readTree(response.body());
                 this.token = root.get("token").asText();  // Сохраняем токен
+                this.refreshToken = root.get("refreshToken").asText();
                 this.id = root.get("id").asLong();
                 System.out.println("Токен получен: " + getToken());
                 return root.get("userType").asText();
@@ -111,6 +142,136 @@ public class ServerService {
         return null;
     }
 
+    /**
+     * Отправляет запрос с токеном авторизации.
+     * Если токен истек (статус 401), получает новый токен по refresh-токену и повторяет запрос один раз,
+     * поэтому повторный ввод пароля не требуется.
+     *
+     * @param request Построитель запроса без заголовка авторизации
+     * @return Ответ сервера
+     * @throws Exception Ошибка при отправке запроса
+     */
+    public HttpResponse<String> sendAuthorized(HttpRequest.Builder request) throws Exception {
+        return sendAuthorized(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Отправляет запрос с токеном авторизации, читая тело ответа указанным обработчиком.
+     *
+     * @param request     Построитель запроса без заголовка авторизации
+     * @param bodyHandler Обработчик тела ответа
+     * @return Ответ сервера
+     * @throws Exception Ошибка при отправке запроса
+     */
+    private <T> HttpResponse<T> sendAuthorized(HttpRequest.Builder request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws Exception {
+        String usedToken = token;
+        HttpResponse<T> response = httpClient.send(
+                request.copy().header("Authorization", "Bearer " + usedToken).build(), bodyHandler);
+        if (response.statusCode() == 401 && refreshAccessToken(usedToken)) {
+            response = httpClient.send(request.header("Authorization", "Bearer " + token).build(), bodyHandler);
+        }
+        return response;
+    }
+
+    /**
+     * Отправляет GET-запрос списка с токеном авторизации и условием If-None-Match.
+     * Запрашивает компактный бинарный формат CBOR, а если сервер ответит JSON — сжатие gzip.
+     * Если сервер ответил 304 (Not Modified), возвращается сохраненный ранее ответ,
+     * поэтому неизменившиеся данные не передаются повторно. Тело ответа разбирается методом readList.
+     *
+     * @param request Построитель GET-запроса без заголовка авторизации
+     * @return Ответ сервера или сохраненный ответ, если данные не изменились
+     * @throws Exception Ошибка при отправке запроса
+     */
+    public HttpResponse<byte[]> sendConditional(HttpRequest.Builder request) throws Exception {
+        URI uri = request.copy().build().uri();
+        request.header("Accept", "application/cbor, application/json;q=0.9")
+                .header("Accept-Encoding", "gzip");
+        CachedResponse cached = responseCache.get(uri);
+        if (cached != null) {
+            request.header("If-None-Match", cached.etag());
+        }
+        HttpResponse<byte[]> response = sendAuthorized(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 304 && cached != null) {
+            return cached.response();
+        }
+        Optional<String> etag = response.headers().firstValue("ETag");
+        if (response.statusCode() == 200 && etag.isPresent()) {
+            responseCache.put(uri, new CachedResponse(etag.get(), response));
+        } else {
+            responseCache.remove(uri);
+        }
+        return response;
+    }
+
+    /**
+     * Разбирает ответ со списком в формате CBOR или JSON (в том числе сжатом gzip).
+     *
+     * @param response Ответ сервера
+     * @param type     Тип списка
+     * @return Список объектов
+     * @throws IOException Ошибка разбора ответа
+     */
+    public <T> List<T> readList(HttpResponse<byte[]> response, TypeReference<List<T>> type) throws IOException {
+        boolean cbor = response.headers().firstValue("Content-Type")
+                .map(contentType -> contentType.startsWith("application/cbor"))
+                .orElse(false);
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map("gzip"::equalsIgnoreCase)
+                .orElse(false);
+        ObjectMapper mapper = cbor ? cborMapper : objectMapper;
+        if (!gzip) {
+            return mapper.readValue(response.body(), type);
+        }
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return mapper.readValue(body, type);
+        }
+    }
+
+    /**
+     * Удаляет сохраненные ответы сервера (например, при выходе пользователя).
+     */
+    public void clearResponseCache() {
+        responseCache.clear();
+    }
+
+    /**
+     * Получает новый токен авторизации по refresh-токену.
+     * Если другой запрос уже обновил токен, повторное обновление не выполняется.
+     *
+     * @param expiredToken Токен, с которым запрос получил статус 401
+     * @return true, если действующий токен получен, иначе false
+     */
+    private synchronized boolean refreshAccessToken(String expiredToken) {
+        if (!Objects.equals(token, expiredToken)) {
+            return token != null;
+        }
+        if (refreshToken == null) {
+            return false;
+        }
+        try {
+            String jsonBody = objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:8080/api/users/token/refresh"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                JsonNode root = objectMapper.readTree(response.body());
+                this.token = root.get("token").asText();
+                this.refreshToken = root.get("refreshToken").asText();
+                return true;
+            }
+            this.refreshToken = null; // Refresh-токен истек или отозван — нужен повторный вход
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     /**
      * Регистрирует нового пользователя на сервере.
      *
@@ -145,14 +306,12 @@ public class ServerService {
     public boolean createUser(UserDTO user) {
         try {
             String json = objectMapper.writeValueAsString(user);
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/users"))
-                    .header("Authorization", "Bearer " + getToken())
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(json))
-                    .build();
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = sendAuthorized(request);
             return response.statusCode() == 200;
         } catch (Exception e) {
             e.printStackTrace();
@@ -168,13 +327,11 @@ public class ServerService {
      */
     public boolean deleteUser(Long userId) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/users/" + userId))
-                    .header("Authorization", "Bearer " + getToken())
-                    .DELETE()
-                    .build();
+                    .DELETE();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = sendAuthorized(request);
             return response.statusCode() == 204;
         } catch (Exception e) {
             e.printStackTrace();
@@ -190,13 +347,11 @@ public class ServerService {
      */
     public Optional<UserDTO> findUserByUsername(String username) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/users/search?username=" + username))
-                    .header("Authorization", "Bearer " + getToken())
-                    .GET()
-                    .build();
+                    .GET();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = sendAuthorized(request);
 
             if (response.statusCode() == 200) {
                 // Десериализуем JSON в UserDTO
@@ -220,15 +375,13 @@ public class ServerService {
      */
     public List<BookingDTO> findBookingsByUserId(Long userId) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/bookings/user/" + userId))
-                    .header("Authorization", "Bearer " + getToken())
-                    .GET()
-                    .build();
+                    .GET();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<byte[]> response = sendConditional(request);
             if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), new TypeReference<List<BookingDTO>>() {});
+                return readList(response, new TypeReference<List<BookingDTO>>() {});
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -243,16 +396,14 @@ public class ServerService {
      */
     public List<CarDTO> getAvailableCars() {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/cars/available"))
-                    .header("Authorization", "Bearer " + getToken())
-                    .GET()
-                    .build();
+                    .GET();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<byte[]> response = sendConditional(request);
 
             if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), new TypeReference<List<CarDTO>>() {});
+                return readList(response, new TypeReference<List<CarDTO>>() {});
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -269,14 +420,12 @@ public class ServerService {
     public boolean createBooking(BookingDTO booking) {
         try {
             String json = objectMapper.writeValueAsString(booking);
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/bookings"))
-                    .header("Authorization", "Bearer " + getToken())
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(json))
-                    .build();
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = sendAuthorized(request);
 
             return response.statusCode() == 200;
         } catch (Exception e) {
@@ -293,16 +442,14 @@ public class ServerService {
      */
     public List<BookingDTO> getBookingsByUser(Long userId) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(new URI("http://localhost:8080/bookings/user/" + userId))
-                    .header("Authorization", "Bearer " + getToken())
-                    .GET()
-                    .build();
+            HttpRequest.Builder request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:8080/api/bookings/user/" + userId))
+                    .GET();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<byte[]> response = sendConditional(request);
 
             if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), new TypeReference<List<BookingDTO>>() {});
+                return readList(response, new TypeReference<List<BookingDTO>>() {});
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -318,13 +465,11 @@ public class ServerService {
      */
     public Long getUserId(String username) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(new URI("http://localhost:8080/api/users/search?username=" + username))
-                    .header("Authorization", "Bearer " + getToken())
-                    .GET()
-                    .build();
+                    .GET();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = sendAuthorized(request);
 
             if (response.statusCode() == 200) {
                 UserDTO user = objectMapper.readValue(response.body(), UserDTO.class);
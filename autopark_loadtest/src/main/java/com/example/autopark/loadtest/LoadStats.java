@@ -0,0 +1,89 @@
+package com.example.autopark.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика одной фазы теста: гистограммы задержек HdrHistogram и коды ответов по каждому эндпоинту,
+ * а также счетчики сессий. Запись потокобезопасна и не блокирует виртуальные потоки сессий.
+ */
+final class LoadStats {
+
+    // Задержки записываются в микросекундах, до 60 секунд с точностью три значащие цифры
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    // Код ответа для запросов, завершившихся исключением (таймаут, разрыв соединения)
+    static final int IO_ERROR = -1;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    final LongAdder sessionsStarted = new LongAdder();
+    final LongAdder sessionsCompleted = new LongAdder();
+    final LongAdder sessionsAborted = new LongAdder();
+
+    private static final class Endpoint {
+        final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Записывает результат запроса.
+     *
+     * @param endpoint     Имя эндпоинта
+     * @param status       Код ответа или IO_ERROR
+     * @param latencyNanos Задержка запроса в наносекундах
+     */
+    void record(String endpoint, int status, long latencyNanos) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.recorder.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        stats.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+    }
+
+    /**
+     * Печатает сводку (p50/p95/p99/max и пропускную способность по эндпоинтам) и сохраняет
+     * распределение задержек каждого эндпоинта в формате HdrHistogram (.hgrm) в каталог результатов.
+     *
+     * @param duration Длительность фазы измерения
+     * @param output   Каталог результатов
+     * @throws IOException Если не удалось записать файлы
+     */
+    void report(Duration duration, Path output) throws IOException {
+        Files.createDirectories(output);
+        double seconds = duration.toNanos() / 1e9;
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Сессии: начато %d, завершено %d, прервано %d%n",
+                sessionsStarted.sum(), sessionsCompleted.sum(), sessionsAborted.sum()));
+        summary.append(String.format("%-16s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "statuses"));
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().recorder.getIntervalHistogram();
+            Map<Integer, Long> statuses = new TreeMap<>();
+            entry.getValue().statuses.forEach((status, count) -> statuses.put(status, count.sum()));
+            summary.append(String.format("%-16s %9d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    entry.getKey(), histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()), statuses));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(entry.getKey() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0); // Значения в файле — в миллисекундах
+            }
+        }
+        System.out.print(summary);
+        Files.writeString(output.resolve("summary.txt"), summary);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.autopark.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки для сервера autopark.
+ * Нагрузка открытая: новые сессии начинаются с заданной частотой независимо от того, успевает ли сервер
+ * обслуживать уже начатые, поэтому рост задержек не снижает поток запросов, как в реальной системе.
+ * Каждая сессия выполняется в отдельном виртуальном потоке, HTTP-клиент также работает на виртуальных потоках.
+ * Сервер может быть запущен генератором с профилем h2, тогда каждый прогон начинается с чистой базы данных.
+ */
+public class LoadTest {
+
+    /**
+     * Точка входа.
+     *
+     * @param args Аргументы командной строки, см. LoadTestOptions.USAGE
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ServerProcess server = options.serverJar() == null ? null
+                    : ServerProcess.start(options.serverJar(), options.port(), options.baseUrl(), client);
+            try {
+                new LoadTest(options, client).run();
+            } finally {
+                if (server != null) {
+                    server.close();
+                }
+            }
+        }
+    }
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Уникальный префикс имен пользователей — повторный прогон против того же сервера не конфликтует с прежним
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sessionNumber = new AtomicLong();
+
+    private LoadTest(LoadTestOptions options, HttpClient client) {
+        this.options = options;
+        this.client = client;
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Цель: %s, %.1f сессий/с (%s), прогрев %s, измерение %s%n", options.baseUrl(),
+                options.rate(), options.poisson() ? "poisson" : "constant", options.warmup(), options.duration());
+        if (!options.warmup().isZero()) {
+            runPhase(options.warmup(), new LoadStats());
+        }
+        LoadStats stats = new LoadStats();
+        runPhase(options.duration(), stats);
+        stats.report(options.duration(), options.output());
+        System.out.println("Гистограммы сохранены в " + options.output().toAbsolutePath());
+    }
+
+    /**
+     * Начинает сессии по расписанию в течение фазы и ждет завершения всех начатых сессий.
+     * Сессии каждой фазы пишут в свою статистику, поэтому хвост прогрева не попадает в измерение.
+     *
+     * @param duration Длительность фазы
+     * @param stats    Статистика фазы
+     */
+    private void runPhase(Duration duration, LoadStats stats) throws InterruptedException {
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = System.nanoTime();
+            long end = next + duration.toNanos();
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long intendedStart = next;
+                RentalSession session = new RentalSession(client, mapper, options.baseUrl(), options.thinkTime(),
+                        stats, "load-" + runId + "-" + sessionNumber.incrementAndGet());
+                sessions.execute(() -> session.run(intendedStart));
+                next += options.poisson() ? exponential(meanIntervalNanos) : meanIntervalNanos;
+            }
+        } // close() ждет завершения начатых сессий
+    }
+
+    private static long exponential(long meanNanos) {
+        return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+    }
+}
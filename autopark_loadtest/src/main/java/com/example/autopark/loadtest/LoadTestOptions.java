@@ -0,0 +1,84 @@
+package com.example.autopark.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Параметры нагрузочного теста, заданные аргументами командной строки.
+ *
+ * @param baseUrl   Адрес сервера (если сервер не запускается генератором)
+ * @param serverJar Путь к jar-файлу сервера; если задан, сервер запускается с профилем h2
+ * @param port      Порт запускаемого сервера
+ * @param rate      Частота начала новых сессий в секунду (открытая модель нагрузки)
+ * @param poisson   true — интервалы между сессиями случайные (пуассоновский поток), false — равные
+ * @param warmup    Длительность прогрева, результаты которого не учитываются
+ * @param duration  Длительность измерения
+ * @param thinkTime Пауза пользователя между шагами сессии
+ * @param output    Каталог для файлов гистограмм и сводки
+ */
+record LoadTestOptions(String baseUrl, Path serverJar, int port, double rate, boolean poisson,
+                       Duration warmup, Duration duration, Duration thinkTime, Path output) {
+
+    static final String USAGE = """
+            Параметры:
+              --base-url <url>        адрес работающего сервера (по умолчанию http://localhost:<port>)
+              --server-jar <path>     запустить сервер из jar с профилем h2 и остановить после теста
+              --port <n>              порт запускаемого сервера (по умолчанию 18080)
+              --rate <n>              новых сессий в секунду (по умолчанию 5)
+              --arrival <type>        poisson или constant (по умолчанию poisson)
+              --warmup <duration>     прогрев, ISO-8601 (по умолчанию PT10S)
+              --duration <duration>   измерение, ISO-8601 (по умолчанию PT60S)
+              --think-time <duration> пауза между шагами сессии (по умолчанию PT0S)
+              --output <dir>          каталог результатов (по умолчанию target/loadtest)
+            """;
+
+    /**
+     * Разбирает аргументы командной строки.
+     *
+     * @param args Аргументы командной строки
+     * @return Параметры теста
+     * @throws IllegalArgumentException Если аргумент неизвестен или значение некорректно
+     */
+    static LoadTestOptions parse(String[] args) {
+        String baseUrl = null;
+        Path serverJar = null;
+        int port = 18080;
+        double rate = 5;
+        boolean poisson = true;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Duration thinkTime = Duration.ZERO;
+        Path output = Path.of("target", "loadtest");
+
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Не задано значение параметра " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--base-url" -> baseUrl = value;
+                case "--server-jar" -> serverJar = Path.of(value);
+                case "--port" -> port = Integer.parseInt(value);
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--arrival" -> poisson = switch (value) {
+                    case "poisson" -> true;
+                    case "constant" -> false;
+                    default -> throw new IllegalArgumentException("Неизвестный тип потока: " + value);
+                };
+                case "--warmup" -> warmup = Duration.parse(value);
+                case "--duration" -> duration = Duration.parse(value);
+                case "--think-time" -> thinkTime = Duration.parse(value);
+                case "--output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + name);
+            }
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Частота сессий должна быть положительной");
+        }
+        if (baseUrl == null) {
+            baseUrl = "http://localhost:" + port;
+        }
+        return new LoadTestOptions(baseUrl, serverJar, port, rate, poisson, warmup, duration, thinkTime, output);
+    }
+}
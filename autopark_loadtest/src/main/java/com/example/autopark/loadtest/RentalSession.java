@@ -0,0 +1,158 @@
+package com.example.autopark.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Сессия пользователя проката: регистрация, вход, список доступных машин, бронирование,
+ * список своих бронирований и отмена бронирования. Сессия выполняется в своем виртуальном потоке.
+ * Если шаг завершился ошибкой, сессия прерывается; конфликт бронирования (409) — ожидаемый исход,
+ * после которого отменять нечего.
+ */
+final class RentalSession {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final String baseUrl;
+    private final Duration thinkTime;
+    private final LoadStats stats;
+    private final String username;
+
+    RentalSession(HttpClient client, ObjectMapper mapper, String baseUrl, Duration thinkTime,
+                  LoadStats stats, String username) {
+        this.client = client;
+        this.mapper = mapper;
+        this.baseUrl = baseUrl;
+        this.thinkTime = thinkTime;
+        this.stats = stats;
+        this.username = username;
+    }
+
+    /** Исключение, прерывающее сессию после неуспешного шага. */
+    private static final class SessionAbortedException extends Exception {
+        SessionAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Выполняет сессию.
+     * Задержка первого запроса отсчитывается от запланированного момента начала сессии,
+     * поэтому отставание генератора от расписания не скрывается (coordinated omission).
+     *
+     * @param intendedStartNanos Запланированный момент начала сессии по System.nanoTime()
+     */
+    void run(long intendedStartNanos) {
+        stats.sessionsStarted.increment();
+        try {
+            String credentials = mapper.writeValueAsString(Map.of(
+                    "username", username, "password", "password-" + username));
+            send("register", post("/api/users/register", credentials), intendedStartNanos, 200);
+
+            JsonNode login = json(send("login", post("/api/users/login", credentials), 0, 200));
+            String token = "Bearer " + login.path("token").asText();
+            long userId = login.path("id").asLong();
+
+            JsonNode cars = json(send("cars.available", get("/api/cars/available", token), 0, 200));
+            if (cars.isEmpty()) {
+                throw new SessionAbortedException();
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long carId = cars.get(random.nextInt(cars.size())).path("id").asLong();
+            LocalDate startDate = LocalDate.now().plusDays(30 + random.nextInt(730));
+            LocalDate endDate = startDate.plusDays(random.nextInt(7));
+            String booking = mapper.writeValueAsString(Map.of("userId", userId, "carId", carId,
+                    "startDate", startDate.toString(), "endDate", endDate.toString()));
+            HttpResponse<String> created = send("bookings.create",
+                    post("/api/bookings", booking).header("Authorization", token), 0, 200, 409);
+
+            JsonNode mine = json(send("bookings.mine", get("/api/bookings/user/" + userId, token), 0, 200));
+            if (created.statusCode() == 200) {
+                for (JsonNode dto : mine) {
+                    if (dto.path("carId").asLong() == carId && startDate.toString().equals(dto.path("startDate").asText())) {
+                        send("bookings.cancel", HttpRequest.newBuilder(uri("/api/bookings/" + dto.path("id").asLong()))
+                                .header("Authorization", token).DELETE(), 0, 200);
+                        break;
+                    }
+                }
+            }
+            stats.sessionsCompleted.increment();
+        } catch (SessionAbortedException | IOException e) {
+            stats.sessionsAborted.increment();
+        } catch (InterruptedException e) {
+            stats.sessionsAborted.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Отправляет запрос и записывает его задержку и код ответа.
+     *
+     * @param endpoint       Имя эндпоинта в отчете
+     * @param request        Запрос
+     * @param startNanos     Момент, от которого отсчитывается задержка; 0 — момент отправки
+     * @param expectedStatus Допустимые коды ответа
+     * @return Ответ сервера
+     * @throws SessionAbortedException Если запрос не выполнен или код ответа недопустим
+     */
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, long startNanos,
+                                      int... expectedStatus) throws SessionAbortedException, InterruptedException {
+        if (startNanos == 0) {
+            pause();
+            startNanos = System.nanoTime();
+        }
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            stats.record(endpoint, LoadStats.IO_ERROR, System.nanoTime() - startNanos);
+            throw new SessionAbortedException();
+        }
+        stats.record(endpoint, response.statusCode(), System.nanoTime() - startNanos);
+        for (int status : expectedStatus) {
+            if (response.statusCode() == status) {
+                return response;
+            }
+        }
+        throw new SessionAbortedException();
+    }
+
+    private void pause() throws InterruptedException {
+        if (!thinkTime.isZero()) {
+            Thread.sleep(thinkTime);
+        }
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws IOException {
+        return mapper.readTree(response.body());
+    }
+
+    private HttpRequest.Builder get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", token)
+                .header("Accept", "application/json")
+                .GET();
+    }
+
+    private HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.autopark.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервер autopark, запущенный в отдельном процессе с профилем h2 (база данных H2 в памяти).
+ * Каждый запуск начинается с чистой базы данных, поэтому результаты воспроизводимы.
+ */
+final class ServerProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private final Process process;
+
+    private ServerProcess(Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Запускает сервер из jar-файла тем же JDK, что и генератор нагрузки, и ждет его готовности.
+     *
+     * @param jar     Путь к jar-файлу сервера
+     * @param port    Порт сервера
+     * @param baseUrl Адрес сервера для проверки готовности
+     * @param client  HTTP-клиент
+     * @return Запущенный сервер
+     * @throws IOException Если сервер не запустился за отведенное время
+     */
+    static ServerProcess start(Path jar, int port, String baseUrl, HttpClient client)
+            throws IOException, InterruptedException {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Path log = Path.of("target", "loadtest-server.log").toAbsolutePath();
+        log.getParent().toFile().mkdirs();
+        Process process = new ProcessBuilder(List.of(java.toString(), "-jar", jar.toAbsolutePath().toString(),
+                "--spring.profiles.active=h2", "--server.port=" + port))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        ServerProcess server = new ServerProcess(process);
+        System.out.println("Запуск сервера, журнал: " + log);
+
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("Сервер завершился при запуске, см. " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return server;
+                }
+            } catch (IOException e) {
+                // Сервер еще не принимает соединения
+            }
+            Thread.sleep(500);
+        }
+        server.close();
+        throw new IOException("Сервер не запустился за " + STARTUP_TIMEOUT.toSeconds() + " с, см. " + log);
+    }
+
+    /**
+     * Останавливает сервер.
+     */
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}